@@ -0,0 +1,133 @@
+package ru.practicum.shareit.booking.archive;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.ArchivedBookingRepository;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Фоновый перенос бронирований, закончившихся раньше archive-after назад, из bookings в bookings_archive.
+ * Каждая пачка копируется и удаляется в одной транзакции, так что бронирование всегда находится ровно в одной таблице.
+ * В PostgreSQL архив секционирован по году окончания: перед каждым проходом заводятся секции от года границы
+ * архива до следующего календарного, поэтому секция появляется раньше, чем в неё может попасть строка.
+ */
+@Slf4j
+@Component
+public class BookingArchiver {
+    private static final int BATCH_SIZE = 500;
+    private static final String POSTGRESQL = "PostgreSQL";
+
+    private final BookingRepository bookingRepository;
+    private final ArchivedBookingRepository archivedBookingRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final JdbcTemplate jdbcTemplate;
+    private final Duration archiveAfter;
+    private final Duration interval;
+
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(task -> {
+        Thread thread = new Thread(task, "booking-archiver");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public BookingArchiver(BookingRepository bookingRepository,
+                           ArchivedBookingRepository archivedBookingRepository,
+                           PlatformTransactionManager transactionManager,
+                           JdbcTemplate jdbcTemplate,
+                           @Value("${shareit.booking.archive-after:P30D}") Duration archiveAfter,
+                           @Value("${shareit.booking.archive-interval:PT1H}") Duration interval) {
+        this.bookingRepository = bookingRepository;
+        this.archivedBookingRepository = archivedBookingRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.jdbcTemplate = jdbcTemplate;
+        this.archiveAfter = archiveAfter;
+        this.interval = interval;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        executor.execute(this::createPartitions);
+        executor.scheduleWithFixedDelay(this::archive, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Граница архива: каждое бронирование в архиве и началось, и закончилось раньше этого момента.
+     */
+    public LocalDateTime getArchiveBoundary() {
+        return LocalDateTime.now().minus(archiveAfter);
+    }
+
+    public int archive() {
+        LocalDateTime boundary = getArchiveBoundary();
+        createPartitions();
+        int moved = 0;
+        try {
+            for (BookingStatus status : BookingStatus.values()) {
+                int batch;
+                do {
+                    batch = transactionTemplate.execute(tx -> moveBatch(status, boundary));
+                    moved += batch;
+                } while (batch == BATCH_SIZE);
+            }
+        } catch (RuntimeException e) {
+            log.error("Ошибка архивации бронирований", e);
+        }
+        if (moved > 0) {
+            log.info("Перенесено в архив бронирований: {}", moved);
+        }
+        return moved;
+    }
+
+    private void createPartitions() {
+        try {
+            String database = jdbcTemplate.execute(
+                    (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+            if (!POSTGRESQL.equals(database)) {
+                return;
+            }
+            int lastYear = LocalDate.now().getYear() + 1;
+            for (int year = getArchiveBoundary().getYear(); year <= lastYear; year++) {
+                jdbcTemplate.execute(String.format("CREATE TABLE IF NOT EXISTS bookings_archive_%d "
+                        + "PARTITION OF bookings_archive FOR VALUES FROM ('%d-01-01') TO ('%d-01-01')",
+                        year, year, year + 1));
+            }
+        } catch (DataAccessException e) {
+            // Например, в секции по умолчанию уже есть строки за этот год: архивация продолжится без новой секции
+            log.warn("Не удалось создать секции архива бронирований: {}", e.getMostSpecificCause().getMessage());
+        }
+    }
+
+    private int moveBatch(BookingStatus status, LocalDateTime boundary) {
+        List<Long> ids = bookingRepository.findIdsByStatusAndEndBefore(status, boundary, PageRequest.of(0, BATCH_SIZE));
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        archivedBookingRepository.copyFromBookings(ids);
+        bookingRepository.deleteByIdIn(ids);
+        return ids.size();
+    }
+}
@@ -1,12 +1,22 @@
 package ru.practicum.shareit.booking.controller;
 
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
 import ru.practicum.shareit.booking.dto.BookingRequestDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.dto.BookingSummaryDto;
 import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.pagination.KeysetCursor;
 
 import java.util.List;
 
@@ -24,6 +34,20 @@ public class BookingController {
         return bookingService.createBooking(bookingDto, userId);
     }
 
+    @PostMapping("/batch")
+    public List<BookingBatchResultDto> createBookings(
+            @RequestBody @Size(max = 100) List<BookingRequestDto> bookingDtos,
+            @RequestHeader("X-Sharer-User-Id") @Positive Long userId) {
+        return bookingService.createBookings(bookingDtos, userId);
+    }
+
+    @PatchMapping("/owner/decisions")
+    public List<BookingBatchResultDto> decideBookings(
+            @RequestBody @Size(max = 100) List<@Valid BookingDecisionDto> decisions,
+            @RequestHeader("X-Sharer-User-Id") @Positive Long ownerId) {
+        return bookingService.decideBookings(decisions, ownerId);
+    }
+
     @PatchMapping("/{bookingId}")
     public BookingResponseDto approveBooking(
             @PathVariable Long bookingId,
@@ -32,6 +56,24 @@ public class BookingController {
         return bookingService.approveBooking(bookingId, userId, approved);
     }
 
+    @GetMapping("/summary")
+    public BookingSummaryDto getUserBookingSummary(
+            @RequestHeader("X-Sharer-User-Id") Long userId) {
+        return bookingService.getUserBookingSummary(userId);
+    }
+
+    @GetMapping("/owner/summary")
+    public BookingSummaryDto getOwnerBookingSummary(
+            @RequestHeader("X-Sharer-User-Id") Long ownerId) {
+        return bookingService.getOwnerBookingSummary(ownerId);
+    }
+
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamBookingEvents(
+            @RequestHeader("X-Sharer-User-Id") @Positive Long userId) {
+        return bookingService.subscribeToEvents(userId);
+    }
+
     @GetMapping("/{bookingId}")
     public BookingResponseDto getBooking(
             @PathVariable Long bookingId,
@@ -40,16 +82,30 @@ public class BookingController {
     }
 
     @GetMapping
-    public List<BookingResponseDto> getUserBookings(
+    public ResponseEntity<List<BookingResponseDto>> getUserBookings(
             @RequestHeader("X-Sharer-User-Id") Long userId,
-            @RequestParam(defaultValue = "ALL") String state) {
-        return bookingService.getUserBookings(userId, state);
+            @RequestParam(defaultValue = "ALL") String state,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") @Positive @Max(100) int size) {
+        return withNextCursor(bookingService.getUserBookings(userId, state, KeysetCursor.decode(cursor), size), size);
     }
 
     @GetMapping("/owner")
-    public List<BookingResponseDto> getOwnerBookings(
+    public ResponseEntity<List<BookingResponseDto>> getOwnerBookings(
             @RequestHeader("X-Sharer-User-Id") Long ownerId,
-            @RequestParam(defaultValue = "ALL") String state) {
-        return bookingService.getOwnerBookings(ownerId, state);
+            @RequestParam(defaultValue = "ALL") String state,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") @Positive @Max(100) int size) {
+        return withNextCursor(bookingService.getOwnerBookings(ownerId, state, KeysetCursor.decode(cursor), size), size);
+    }
+
+    private ResponseEntity<List<BookingResponseDto>> withNextCursor(List<BookingResponseDto> bookings, int size) {
+        if (bookings.size() < size) {
+            return ResponseEntity.ok(bookings);
+        }
+        BookingResponseDto last = bookings.get(bookings.size() - 1);
+        return ResponseEntity.ok()
+                .header(KeysetCursor.NEXT_CURSOR_HEADER, KeysetCursor.after(last.getStart(), last.getId()).encode())
+                .body(bookings);
     }
 }
\ No newline at end of file
@@ -0,0 +1,17 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Пара пользователь–вещь с самым ранним окончанием подтверждённых бронирований этой пары.
+ */
+@Data
+@AllArgsConstructor
+public class ApprovedPairDto {
+    private Long bookerId;
+    private Long itemId;
+    private LocalDateTime firstEnd;
+}
@@ -0,0 +1,19 @@
+package ru.practicum.shareit.booking.dto;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookingDecisionDto {
+    @NotNull(message = "ID бронирования не может быть пустым")
+    private Long bookingId;
+
+    @NotNull(message = "Решение по бронированию не может быть пустым")
+    private Boolean approved;
+}
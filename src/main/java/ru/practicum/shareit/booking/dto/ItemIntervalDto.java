@@ -0,0 +1,18 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Интервал бронирования вместе с вещью, к которой он относится.
+ */
+@Data
+@AllArgsConstructor
+public class ItemIntervalDto {
+    private Long itemId;
+    private Long id;
+    private LocalDateTime start;
+    private LocalDateTime end;
+}
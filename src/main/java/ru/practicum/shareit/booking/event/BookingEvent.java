@@ -0,0 +1,34 @@
+package ru.practicum.shareit.booking.event;
+
+import lombok.Builder;
+import lombok.Value;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+
+import java.time.LocalDateTime;
+
+@Value
+@Builder
+public class BookingEvent {
+    BookingEventType type;
+    Long bookingId;
+    Long itemId;
+    Long ownerId;
+    Long bookerId;
+    LocalDateTime start;
+    LocalDateTime end;
+    BookingStatus status;
+
+    public static BookingEvent of(BookingEventType type, Booking booking) {
+        return BookingEvent.builder()
+                .type(type)
+                .bookingId(booking.getId())
+                .itemId(booking.getItem().getId())
+                .ownerId(booking.getItem().getOwner().getId())
+                .bookerId(booking.getBooker().getId())
+                .start(booking.getStart())
+                .end(booking.getEnd())
+                .status(booking.getStatus())
+                .build();
+    }
+}
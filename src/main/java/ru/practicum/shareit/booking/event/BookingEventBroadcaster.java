@@ -0,0 +1,204 @@
+package ru.practicum.shareit.booking.event;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Рассылка событий бронирований подписчикам SSE. У каждого подписчика свой ограниченный буфер:
+ * публикация никогда не блокируется, при переполнении вытесняется самое старое событие.
+ * Буфер подписчика разбирается в отдельном виртуальном потоке, поэтому медленный клиент
+ * задерживает только свои события; подписчик, чья запись висит дольше send-timeout, отключается.
+ * У одного пользователя не больше max-emitters-per-user подписок, лишние вытесняют самые старые.
+ */
+@Slf4j
+@Component
+public class BookingEventBroadcaster {
+    private static final long EMITTER_TIMEOUT = Duration.ofMinutes(30).toMillis();
+    private static final int BUFFER_CAPACITY = 64;
+
+    private final long sendTimeoutNanos;
+    private final int maxEmittersPerUser;
+    private final AtomicLong subscriptionCounter = new AtomicLong();
+    private final ConcurrentMap<Long, Set<Subscriber>> subscribersByUser = new ConcurrentHashMap<>();
+    private final ExecutorService dispatcher = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("booking-sse-", 1).factory());
+    private final ScheduledExecutorService watchdog = Executors.newSingleThreadScheduledExecutor(task -> {
+        Thread thread = new Thread(task, "booking-sse-watchdog");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public BookingEventBroadcaster(@Value("${shareit.booking.sse-send-timeout:PT10S}") Duration sendTimeout,
+                                   @Value("${shareit.booking.sse-max-emitters-per-user:5}") int maxEmittersPerUser) {
+        this.sendTimeoutNanos = sendTimeout.toNanos();
+        this.maxEmittersPerUser = maxEmittersPerUser;
+        long checkMillis = Math.max(sendTimeout.toMillis() / 2, 1);
+        watchdog.scheduleWithFixedDelay(this::dropStalled, checkMillis, checkMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public SseEmitter subscribe(Long userId) {
+        SseEmitter emitter = new SseEmitter(EMITTER_TIMEOUT);
+        Subscriber subscriber = new Subscriber(userId, emitter, subscriptionCounter.incrementAndGet());
+        List<Subscriber> evicted = new ArrayList<>();
+        subscribersByUser.compute(userId, (id, subscribers) -> {
+            Set<Subscriber> result = subscribers == null ? ConcurrentHashMap.newKeySet() : subscribers;
+            while (result.size() >= maxEmittersPerUser) {
+                Subscriber oldest = result.stream()
+                        .min(Comparator.comparingLong(s -> s.sequence))
+                        .orElseThrow();
+                result.remove(oldest);
+                evicted.add(oldest);
+            }
+            result.add(subscriber);
+            return result;
+        });
+        evicted.forEach(oldest -> {
+            log.debug("Превышен лимит подписок пользователя {}, старейшая подписка закрыта", userId);
+            oldest.emitter.complete();
+        });
+
+        emitter.onCompletion(() -> unsubscribe(subscriber));
+        emitter.onTimeout(() -> unsubscribe(subscriber));
+        emitter.onError(e -> unsubscribe(subscriber));
+        return emitter;
+    }
+
+    @TransactionalEventListener
+    public void onBookingEvent(BookingEvent event) {
+        publish(event.getBookerId(), event);
+        if (!event.getOwnerId().equals(event.getBookerId())) {
+            publish(event.getOwnerId(), event);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        watchdog.shutdownNow();
+        dispatcher.shutdownNow();
+        subscribersByUser.values().forEach(subscribers -> subscribers.forEach(s -> s.emitter.complete()));
+    }
+
+    private void publish(Long userId, BookingEvent event) {
+        Set<Subscriber> subscribers = subscribersByUser.get(userId);
+        if (subscribers == null) {
+            return;
+        }
+        for (Subscriber subscriber : subscribers) {
+            subscriber.offer(event);
+            scheduleDrain(subscriber);
+        }
+    }
+
+    private void scheduleDrain(Subscriber subscriber) {
+        if (subscriber.draining.compareAndSet(false, true)) {
+            try {
+                dispatcher.execute(() -> drain(subscriber));
+            } catch (RejectedExecutionException e) {
+                subscriber.draining.set(false);
+            }
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        subscriber.worker = Thread.currentThread();
+        try {
+            BookingEvent event;
+            while (!subscriber.dropped && (event = subscriber.buffer.poll()) != null) {
+                subscriber.sendStartedAt = System.nanoTime();
+                subscriber.emitter.send(SseEmitter.event()
+                        .name(event.getType().name().toLowerCase())
+                        .id(String.valueOf(event.getBookingId()))
+                        .data(event));
+                subscriber.sendStartedAt = 0;
+            }
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Подписчик {} отключился: {}", subscriber.userId, e.getMessage());
+            unsubscribe(subscriber);
+            return;
+        } finally {
+            subscriber.sendStartedAt = 0;
+            subscriber.worker = null;
+            subscriber.draining.set(false);
+        }
+        if (!subscriber.dropped && !subscriber.buffer.isEmpty()) {
+            scheduleDrain(subscriber);
+        }
+    }
+
+    private void dropStalled() {
+        long now = System.nanoTime();
+        subscribersByUser.values().forEach(subscribers -> subscribers.forEach(subscriber -> {
+            long startedAt = subscriber.sendStartedAt;
+            if (startedAt != 0 && now - startedAt > sendTimeoutNanos) {
+                log.warn("Подписчик {} не принимает события дольше {} мс, подписка закрыта",
+                        subscriber.userId, TimeUnit.NANOSECONDS.toMillis(sendTimeoutNanos));
+                unsubscribe(subscriber);
+                Thread worker = subscriber.worker;
+                if (worker != null) {
+                    worker.interrupt();
+                }
+                // completeWithError ждёт ту же блокировку, что и зависшая запись, поэтому не в потоке сторожа
+                try {
+                    dispatcher.execute(() -> subscriber.emitter.completeWithError(
+                            new IOException("Превышено время отправки события")));
+                } catch (RejectedExecutionException e) {
+                    log.debug("Рассылка остановлена, подписчик {} не закрыт", subscriber.userId);
+                }
+            }
+        }));
+    }
+
+    private void unsubscribe(Subscriber subscriber) {
+        subscriber.dropped = true;
+        subscriber.buffer.clear();
+        subscribersByUser.computeIfPresent(subscriber.userId, (userId, subscribers) -> {
+            subscribers.remove(subscriber);
+            return subscribers.isEmpty() ? null : subscribers;
+        });
+    }
+
+    private static final class Subscriber {
+        private final Long userId;
+        private final SseEmitter emitter;
+        private final long sequence;
+        private final Queue<BookingEvent> buffer = new ArrayBlockingQueue<>(BUFFER_CAPACITY);
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile long sendStartedAt;
+        private volatile Thread worker;
+        private volatile boolean dropped;
+
+        private Subscriber(Long userId, SseEmitter emitter, long sequence) {
+            this.userId = userId;
+            this.emitter = emitter;
+            this.sequence = sequence;
+        }
+
+        private void offer(BookingEvent event) {
+            while (!buffer.offer(event)) {
+                buffer.poll();
+            }
+        }
+    }
+}
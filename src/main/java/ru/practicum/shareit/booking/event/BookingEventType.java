@@ -0,0 +1,9 @@
+package ru.practicum.shareit.booking.event;
+
+public enum BookingEventType {
+    CREATED,
+    APPROVED,
+    REJECTED,
+    STARTED,
+    ENDED
+}
@@ -0,0 +1,270 @@
+package ru.practicum.shareit.booking.lifecycle;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.dto.BookingIntervalDto;
+import ru.practicum.shareit.booking.event.BookingEvent;
+import ru.practicum.shareit.booking.event.BookingEventType;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Планировщик жизненного цикла бронирований на иерархическом колесе таймеров.
+ * Отклоняет бронирования, оставшиеся в статусе WAITING дольше waiting-timeout после начала,
+ * и публикует события начала и окончания подтверждённых бронирований.
+ * Таймеры держатся только на горизонт lifecycle-horizon вперёд и подгружаются по индексам
+ * (status, start_date) и (status, end_date), поэтому ни старт, ни подгрузка не сканируют всю таблицу.
+ * Колесо и карты таймеров принадлежат единственному потоку планировщика.
+ */
+@Slf4j
+@Component
+public class BookingLifecycleScheduler {
+    private static final long TICK_MILLIS = 1000;
+    private static final int BATCH_SIZE = 100;
+    private static final Duration RETRY_DELAY = Duration.ofSeconds(30);
+
+    private final BookingRepository bookingRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration waitingTimeout;
+    private final Duration horizon;
+
+    private final ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor(task -> {
+        Thread thread = new Thread(task, "booking-lifecycle");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final TimingWheel<Transition> wheel = new TimingWheel<>(TICK_MILLIS, toEpochMilli(LocalDateTime.now()));
+    private final Map<TransitionType, Map<Long, TimingWheel.Timer<Transition>>> timers = new EnumMap<>(TransitionType.class);
+    private LocalDateTime loadedUntil;
+
+    public BookingLifecycleScheduler(BookingRepository bookingRepository,
+                                     ApplicationEventPublisher eventPublisher,
+                                     PlatformTransactionManager transactionManager,
+                                     @Value("${shareit.booking.waiting-timeout:PT1H}") Duration waitingTimeout,
+                                     @Value("${shareit.booking.lifecycle-horizon:PT24H}") Duration horizon) {
+        this.bookingRepository = bookingRepository;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.waitingTimeout = waitingTimeout;
+        this.horizon = horizon;
+        for (TransitionType type : TransitionType.values()) {
+            timers.put(type, new HashMap<>());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        try {
+            ticker.submit(this::rehydrate).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            log.error("Не удалось восстановить таймеры бронирований, повтор на следующем тике", e.getCause());
+        }
+        ticker.scheduleWithFixedDelay(this::tick, TICK_MILLIS, TICK_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    @TransactionalEventListener
+    public void onBookingEvent(BookingEvent event) {
+        try {
+            ticker.execute(() -> track(event));
+        } catch (RejectedExecutionException e) {
+            log.debug("Планировщик бронирований остановлен, событие {} пропущено", event.getType());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        ticker.shutdownNow();
+    }
+
+    private void rehydrate() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime until = now.plus(horizon);
+        bookingRepository.findIntervalsByStatusAndStartBefore(BookingStatus.WAITING, until)
+                .forEach(booking -> scheduleExpiry(booking.getId(), booking.getStart()));
+        loadApproved(now, until);
+        loadedUntil = until;
+        log.info("Восстановлено таймеров бронирований: {}", wheel.size());
+    }
+
+    private void extendHorizon(LocalDateTime now) {
+        LocalDateTime until = now.plus(horizon);
+        bookingRepository.findIntervalsByStatusAndStartBetween(BookingStatus.WAITING, loadedUntil, until)
+                .forEach(booking -> scheduleExpiry(booking.getId(), booking.getStart()));
+        loadApproved(loadedUntil, until);
+        loadedUntil = until;
+    }
+
+    private void loadApproved(LocalDateTime from, LocalDateTime to) {
+        for (BookingIntervalDto booking : bookingRepository.findIntervalsByStatusAndStartBetween(
+                BookingStatus.APPROVED, from, to)) {
+            schedule(TransitionType.START, booking.getId(), booking.getStart());
+        }
+        for (BookingIntervalDto booking : bookingRepository.findIntervalsByStatusAndEndBetween(
+                BookingStatus.APPROVED, from, to)) {
+            schedule(TransitionType.END, booking.getId(), booking.getEnd());
+        }
+    }
+
+    private void tick() {
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            if (loadedUntil == null) {
+                rehydrate();
+            } else if (loadedUntil.isBefore(now.plus(horizon.dividedBy(2)))) {
+                extendHorizon(now);
+            }
+
+            List<Transition> due = new ArrayList<>();
+            wheel.advance(toEpochMilli(now), due::add);
+            for (Transition transition : due) {
+                timers.get(transition.type).remove(transition.bookingId);
+            }
+            for (int from = 0; from < due.size(); from += BATCH_SIZE) {
+                applyBatch(due.subList(from, Math.min(from + BATCH_SIZE, due.size())), now);
+            }
+        } catch (RuntimeException e) {
+            log.error("Ошибка планировщика бронирований", e);
+        }
+    }
+
+    private void applyBatch(List<Transition> batch, LocalDateTime now) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> apply(batch));
+        } catch (RuntimeException e) {
+            log.warn("Не удалось обработать пачку из {} переходов бронирований, повтор через {}",
+                    batch.size(), RETRY_DELAY, e);
+            LocalDateTime retryAt = now.plus(RETRY_DELAY);
+            batch.forEach(transition -> schedule(transition.type, transition.bookingId, retryAt));
+        }
+    }
+
+    private void apply(List<Transition> batch) {
+        List<Long> expiredIds = new ArrayList<>();
+        List<Long> otherIds = new ArrayList<>();
+        for (Transition transition : batch) {
+            (transition.type == TransitionType.EXPIRE ? expiredIds : otherIds).add(transition.bookingId);
+        }
+
+        List<Long> stale = expiredIds.isEmpty() ? List.of()
+                : bookingRepository.lockByIdInAndStatus(expiredIds, BookingStatus.WAITING).stream()
+                        .map(Booking::getId)
+                        .toList();
+        if (!stale.isEmpty()) {
+            for (Booking booking : bookingRepository.findWithDetailsByIdIn(stale)) {
+                booking.setStatus(BookingStatus.REJECTED);
+                eventPublisher.publishEvent(BookingEvent.of(BookingEventType.REJECTED, booking));
+            }
+            log.info("Автоматически отклонено неподтверждённых бронирований: {}", stale.size());
+        }
+
+        if (!otherIds.isEmpty()) {
+            Map<Long, Booking> bookings = new HashMap<>();
+            bookingRepository.findWithDetailsByIdIn(otherIds).forEach(booking -> bookings.put(booking.getId(), booking));
+            for (Transition transition : batch) {
+                Booking booking = bookings.get(transition.bookingId);
+                if (transition.type == TransitionType.EXPIRE || booking == null
+                        || booking.getStatus() != BookingStatus.APPROVED) {
+                    continue;
+                }
+                eventPublisher.publishEvent(BookingEvent.of(
+                        transition.type == TransitionType.START ? BookingEventType.STARTED : BookingEventType.ENDED,
+                        booking));
+            }
+        }
+    }
+
+    private void track(BookingEvent event) {
+        if (loadedUntil == null) {
+            return;
+        }
+        Long bookingId = event.getBookingId();
+        switch (event.getType()) {
+            case CREATED -> {
+                if (!event.getStart().isAfter(loadedUntil)) {
+                    scheduleExpiry(bookingId, event.getStart());
+                }
+            }
+            case APPROVED -> {
+                cancel(TransitionType.EXPIRE, bookingId);
+                LocalDateTime now = LocalDateTime.now();
+                scheduleWithinHorizon(TransitionType.START, bookingId, event.getStart(), now);
+                scheduleWithinHorizon(TransitionType.END, bookingId, event.getEnd(), now);
+            }
+            case REJECTED -> {
+                for (TransitionType type : TransitionType.values()) {
+                    cancel(type, bookingId);
+                }
+            }
+            default -> {
+            }
+        }
+    }
+
+    private void scheduleExpiry(Long bookingId, LocalDateTime start) {
+        schedule(TransitionType.EXPIRE, bookingId, start.plus(waitingTimeout));
+    }
+
+    private void scheduleWithinHorizon(TransitionType type, Long bookingId, LocalDateTime at, LocalDateTime now) {
+        if (at.isAfter(now) && !at.isAfter(loadedUntil)) {
+            schedule(type, bookingId, at);
+        }
+    }
+
+    private void schedule(TransitionType type, Long bookingId, LocalDateTime at) {
+        timers.get(type).computeIfAbsent(bookingId,
+                id -> wheel.schedule(toEpochMilli(at), new Transition(id, type)));
+    }
+
+    private void cancel(TransitionType type, Long bookingId) {
+        TimingWheel.Timer<Transition> timer = timers.get(type).remove(bookingId);
+        if (timer != null) {
+            wheel.cancel(timer);
+        }
+    }
+
+    private static long toEpochMilli(LocalDateTime dateTime) {
+        return dateTime.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    private enum TransitionType {
+        EXPIRE,
+        START,
+        END
+    }
+
+    private static final class Transition {
+        private final Long bookingId;
+        private final TransitionType type;
+
+        private Transition(Long bookingId, TransitionType type) {
+            this.bookingId = bookingId;
+            this.type = type;
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package ru.practicum.shareit.booking.lifecycle;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Иерархическое колесо таймеров. Уровень k состоит из 64 ячеек шириной 64^k тиков;
+ * при переходе младшего уровня через ноль ячейка старшего уровня раскладывается ниже.
+ * Добавление и отмена — O(1), продвижение — O(1) на тик плюс число сработавших таймеров.
+ * Класс не потокобезопасен: все обращения должны идти из одного потока.
+ */
+final class TimingWheel<T> {
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+    private static final long MAX_DELAY_TICKS = (1L << (SLOT_BITS * LEVELS)) - 1;
+
+    private final long tickMillis;
+    private final List<ArrayDeque<Timer<T>>> slots = new ArrayList<>(LEVELS * SLOTS);
+    private final ArrayDeque<Timer<T>> overdue = new ArrayDeque<>();
+    private long currentTick;
+    private int size;
+
+    TimingWheel(long tickMillis, long startMillis) {
+        this.tickMillis = tickMillis;
+        this.currentTick = startMillis / tickMillis;
+        for (int i = 0; i < LEVELS * SLOTS; i++) {
+            slots.add(new ArrayDeque<>());
+        }
+    }
+
+    Timer<T> schedule(long deadlineMillis, T payload) {
+        Timer<T> timer = new Timer<>(Math.ceilDiv(deadlineMillis, tickMillis), payload);
+        place(timer);
+        size++;
+        return timer;
+    }
+
+    void cancel(Timer<T> timer) {
+        if (!timer.cancelled) {
+            timer.cancelled = true;
+            size--;
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Продвигает колесо до указанного момента, передавая сработавшие таймеры в обработчик.
+     */
+    void advance(long nowMillis, Consumer<T> onExpired) {
+        fire(overdue, onExpired);
+        long targetTick = nowMillis / tickMillis;
+        while (currentTick < targetTick) {
+            currentTick++;
+            for (int level = LEVELS - 1; level > 0; level--) {
+                if ((currentTick & ((1L << (SLOT_BITS * level)) - 1)) == 0) {
+                    cascade(slot(level, currentTick));
+                }
+            }
+            fire(slot(0, currentTick), onExpired);
+            fire(overdue, onExpired);
+        }
+    }
+
+    private void place(Timer<T> timer) {
+        long delay = timer.tick - currentTick;
+        if (delay <= 0) {
+            overdue.add(timer);
+            return;
+        }
+        long tick = timer.tick;
+        if (delay > MAX_DELAY_TICKS) {
+            // Слишком далёкий таймер ждёт в последней ячейке верхнего уровня и пересчитывается при раскладке
+            tick = currentTick + MAX_DELAY_TICKS;
+            delay = MAX_DELAY_TICKS;
+        }
+        int level = 0;
+        while (delay >= (1L << (SLOT_BITS * (level + 1)))) {
+            level++;
+        }
+        slot(level, tick).add(timer);
+    }
+
+    private void cascade(ArrayDeque<Timer<T>> slot) {
+        Timer<T> timer;
+        while ((timer = slot.poll()) != null) {
+            if (!timer.cancelled) {
+                place(timer);
+            }
+        }
+    }
+
+    private void fire(ArrayDeque<Timer<T>> slot, Consumer<T> onExpired) {
+        Timer<T> timer;
+        while ((timer = slot.poll()) != null) {
+            if (!timer.cancelled) {
+                timer.cancelled = true;
+                size--;
+                onExpired.accept(timer.payload);
+            }
+        }
+    }
+
+    private ArrayDeque<Timer<T>> slot(int level, long tick) {
+        return slots.get(level * SLOTS + (int) ((tick >>> (SLOT_BITS * level)) & SLOT_MASK));
+    }
+
+    static final class Timer<T> {
+        private final long tick;
+        private final T payload;
+        private boolean cancelled;
+
+        private Timer(long tick, T payload) {
+            this.tick = tick;
+            this.payload = payload;
+        }
+    }
+}
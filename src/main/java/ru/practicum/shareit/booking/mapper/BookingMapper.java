@@ -2,6 +2,7 @@ package ru.practicum.shareit.booking.mapper;
 
 import ru.practicum.shareit.booking.dto.BookingRequestDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.model.ArchivedBooking;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.model.Item;
@@ -16,6 +17,17 @@ public class BookingMapper {
                 .build();
     }
 
+    public static Booking toBooking(ArchivedBooking archivedBooking) {
+        return Booking.builder()
+                .id(archivedBooking.getId())
+                .start(archivedBooking.getStart())
+                .end(archivedBooking.getEnd())
+                .item(archivedBooking.getItem())
+                .booker(archivedBooking.getBooker())
+                .status(archivedBooking.getStatus())
+                .build();
+    }
+
     public static BookingResponseDto toResponseDto(Booking booking) {
         return BookingResponseDto.builder()
                 .id(booking.getId())
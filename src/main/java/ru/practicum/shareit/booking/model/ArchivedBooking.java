@@ -0,0 +1,46 @@
+package ru.practicum.shareit.booking.model;
+
+import lombok.*;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Завершившееся бронирование, перенесённое из горячей таблицы bookings в архив.
+ * Идентификатор сохраняется прежним, поэтому ссылки на бронирование остаются действительными.
+ */
+@Entity
+@Table(name = "bookings_archive", indexes = {
+        @Index(name = "ix_bookings_archive_booker_start", columnList = "booker_id, start_date, id"),
+        @Index(name = "ix_bookings_archive_item_start", columnList = "item_id, start_date, id"),
+        @Index(name = "ix_bookings_archive_item_end", columnList = "item_id, end_date, id")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ArchivedBooking {
+    @Id
+    private Long id;
+
+    @Column(name = "start_date", nullable = false)
+    private LocalDateTime start;
+
+    @Column(name = "end_date", nullable = false)
+    private LocalDateTime end;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "item_id", nullable = false)
+    private Item item;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "booker_id", nullable = false)
+    private User booker;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private BookingStatus status;
+}
@@ -8,7 +8,13 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "bookings")
+@Table(name = "bookings", indexes = {
+        @Index(name = "ix_bookings_booker_start", columnList = "booker_id, start_date, id"),
+        @Index(name = "ix_bookings_item_start", columnList = "item_id, start_date, id"),
+        @Index(name = "ix_bookings_item_end", columnList = "item_id, end_date, id"),
+        @Index(name = "ix_bookings_status_start", columnList = "status, start_date"),
+        @Index(name = "ix_bookings_status_end", columnList = "status, end_date")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -0,0 +1,131 @@
+package ru.practicum.shareit.booking.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import ru.practicum.shareit.booking.dto.ApprovedPairDto;
+import ru.practicum.shareit.booking.dto.BookingShortView;
+import ru.practicum.shareit.booking.dto.BookingSummaryDto;
+import ru.practicum.shareit.booking.model.ArchivedBooking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import static ru.practicum.shareit.booking.repository.BookingRepository.KEYSET_CONDITION;
+import static ru.practicum.shareit.booking.repository.BookingRepository.SUMMARY_COLUMNS;
+
+/**
+ * Архив завершившихся бронирований. Все записи архива закончились в прошлом,
+ * поэтому состояние PAST здесь совпадает с ALL.
+ */
+public interface ArchivedBookingRepository extends JpaRepository<ArchivedBooking, Long> {
+
+    @Modifying
+    @Query(value = "INSERT INTO bookings_archive (id, start_date, end_date, status, item_id, booker_id) " +
+            "SELECT b.id, b.start_date, b.end_date, b.status, b.item_id, b.booker_id " +
+            "FROM bookings b " +
+            "WHERE b.id IN (:ids)", nativeQuery = true)
+    int copyFromBookings(@Param("ids") Collection<Long> ids);
+
+    @EntityGraph(attributePaths = {"item", "item.owner", "booker"})
+    Optional<ArchivedBooking> findWithDetailsById(Long id);
+
+    boolean existsByBookerIdAndItemIdAndStatus(Long bookerId, Long itemId, BookingStatus status);
+
+    Optional<ArchivedBooking> findFirstByBookerIdAndItemIdOrderByEndDesc(Long bookerId, Long itemId);
+
+    @Query(SUMMARY_COLUMNS + "FROM ArchivedBooking b WHERE b.booker.id = :bookerId")
+    BookingSummaryDto summarizeByBooker(
+            @Param("bookerId") Long bookerId,
+            @Param("now") LocalDateTime now,
+            @Param("waiting") BookingStatus waiting,
+            @Param("rejected") BookingStatus rejected);
+
+    @Query(SUMMARY_COLUMNS + "FROM ArchivedBooking b WHERE b.item.owner.id = :ownerId")
+    BookingSummaryDto summarizeByOwner(
+            @Param("ownerId") Long ownerId,
+            @Param("now") LocalDateTime now,
+            @Param("waiting") BookingStatus waiting,
+            @Param("rejected") BookingStatus rejected);
+
+    @EntityGraph(attributePaths = {"item", "item.owner", "booker"})
+    @Query("SELECT b FROM ArchivedBooking b " +
+            "WHERE b.booker.id = :bookerId " +
+            KEYSET_CONDITION +
+            "ORDER BY b.start DESC, b.id DESC")
+    List<ArchivedBooking> findAllByBooker(
+            @Param("bookerId") Long bookerId,
+            @Param("cursorStart") LocalDateTime cursorStart,
+            @Param("cursorId") Long cursorId,
+            Pageable pageable);
+
+    @EntityGraph(attributePaths = {"item", "item.owner", "booker"})
+    @Query("SELECT b FROM ArchivedBooking b " +
+            "WHERE b.booker.id = :bookerId " +
+            "AND b.status = :status " +
+            KEYSET_CONDITION +
+            "ORDER BY b.start DESC, b.id DESC")
+    List<ArchivedBooking> findByBookerAndStatus(
+            @Param("bookerId") Long bookerId,
+            @Param("status") BookingStatus status,
+            @Param("cursorStart") LocalDateTime cursorStart,
+            @Param("cursorId") Long cursorId,
+            Pageable pageable);
+
+    @EntityGraph(attributePaths = {"item", "item.owner", "booker"})
+    @Query("SELECT b FROM ArchivedBooking b " +
+            "WHERE b.item.owner.id = :ownerId " +
+            KEYSET_CONDITION +
+            "ORDER BY b.start DESC, b.id DESC")
+    List<ArchivedBooking> findAllByOwner(
+            @Param("ownerId") Long ownerId,
+            @Param("cursorStart") LocalDateTime cursorStart,
+            @Param("cursorId") Long cursorId,
+            Pageable pageable);
+
+    @EntityGraph(attributePaths = {"item", "item.owner", "booker"})
+    @Query("SELECT b FROM ArchivedBooking b " +
+            "WHERE b.item.owner.id = :ownerId " +
+            "AND b.status = :status " +
+            KEYSET_CONDITION +
+            "ORDER BY b.start DESC, b.id DESC")
+    List<ArchivedBooking> findByOwnerAndStatus(
+            @Param("ownerId") Long ownerId,
+            @Param("status") BookingStatus status,
+            @Param("cursorStart") LocalDateTime cursorStart,
+            @Param("cursorId") Long cursorId,
+            Pageable pageable);
+
+    @Query(value = "SELECT ranked.item_id AS itemId, ranked.id AS id, ranked.booker_id AS bookerId " +
+            "FROM (SELECT b.item_id, b.id, b.booker_id, " +
+            "ROW_NUMBER() OVER (PARTITION BY b.item_id ORDER BY b.end_date DESC, b.id DESC) AS rn " +
+            "FROM bookings_archive b " +
+            "WHERE b.item_id IN (:itemIds)) ranked " +
+            "WHERE ranked.rn = 1", nativeQuery = true)
+    List<BookingShortView> findLastByItemIds(@Param("itemIds") Collection<Long> itemIds);
+
+    @Query("SELECT MAX(b.id) FROM ArchivedBooking b")
+    Long findMaxId();
+
+    @Query("SELECT b.id FROM ArchivedBooking b WHERE b.id > :afterId ORDER BY b.id")
+    List<Long> findIdsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    // Пара сравнивается целиком, чтобы страница читалась диапазоном ix_bookings_archive_status_booker_item_end
+    @Query("SELECT new ru.practicum.shareit.booking.dto.ApprovedPairDto(b.booker.id, b.item.id, MIN(b.end)) " +
+            "FROM ArchivedBooking b " +
+            "WHERE b.status = :status " +
+            "AND (b.booker.id, b.item.id) > (:bookerId, :itemId) " +
+            "GROUP BY b.booker.id, b.item.id " +
+            "ORDER BY b.booker.id, b.item.id")
+    List<ApprovedPairDto> findPairsByStatusAfter(
+            @Param("status") BookingStatus status,
+            @Param("bookerId") Long bookerId,
+            @Param("itemId") Long itemId,
+            Pageable pageable);
+}
@@ -0,0 +1,46 @@
+package ru.practicum.shareit.booking.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import ru.practicum.shareit.booking.model.Booking;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Пакетная вставка через JDBC: при IDENTITY-ключах Hibernate не объединяет INSERT в батчи.
+ */
+@RequiredArgsConstructor
+public class BookingBatchRepositoryImpl implements BookingBatchRepository {
+    private static final String INSERT_SQL = "INSERT INTO bookings (start_date, end_date, status, item_id, booker_id) " +
+            "VALUES (:start, :end, :status, :itemId, :bookerId)";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Override
+    public void insertAll(List<Booking> bookings) {
+        if (bookings.isEmpty()) {
+            return;
+        }
+        SqlParameterSource[] parameters = bookings.stream()
+                .map(booking -> new MapSqlParameterSource()
+                        .addValue("start", booking.getStart())
+                        .addValue("end", booking.getEnd())
+                        .addValue("status", booking.getStatus().name())
+                        .addValue("itemId", booking.getItem().getId())
+                        .addValue("bookerId", booking.getBooker().getId()))
+                .toArray(SqlParameterSource[]::new);
+
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(INSERT_SQL, parameters, keyHolder, new String[]{"id"});
+
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        for (int i = 0; i < bookings.size(); i++) {
+            bookings.get(i).setId(((Number) keys.get(i).get("id")).longValue());
+        }
+    }
+}
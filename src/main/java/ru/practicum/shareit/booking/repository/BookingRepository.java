@@ -1,16 +1,99 @@
 package ru.practicum.shareit.booking.repository;
 
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import ru.practicum.shareit.booking.dto.ApprovedPairDto;
+import ru.practicum.shareit.booking.dto.BookingIntervalDto;
+import ru.practicum.shareit.booking.dto.BookingShortView;
+import ru.practicum.shareit.booking.dto.BookingSummaryDto;
+import ru.practicum.shareit.booking.dto.ItemIntervalDto;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
-public interface BookingRepository extends JpaRepository<Booking, Long> {
+public interface BookingRepository extends JpaRepository<Booking, Long>, BookingBatchRepository {
+    String KEYSET_CONDITION = "AND (b.start < :cursorStart OR (b.start = :cursorStart AND b.id < :cursorId)) ";
+    String SUMMARY_COLUMNS = "SELECT new ru.practicum.shareit.booking.dto.BookingSummaryDto(" +
+            "COUNT(b), " +
+            "COALESCE(SUM(CASE WHEN b.start < :now AND b.end > :now THEN 1L ELSE 0L END), 0L), " +
+            "COALESCE(SUM(CASE WHEN b.end < :now THEN 1L ELSE 0L END), 0L), " +
+            "COALESCE(SUM(CASE WHEN b.start > :now THEN 1L ELSE 0L END), 0L), " +
+            "COALESCE(SUM(CASE WHEN b.status = :waiting THEN 1L ELSE 0L END), 0L), " +
+            "COALESCE(SUM(CASE WHEN b.status = :rejected THEN 1L ELSE 0L END), 0L)) ";
+
+    @Query(SUMMARY_COLUMNS + "FROM Booking b WHERE b.booker.id = :bookerId")
+    BookingSummaryDto summarizeByBooker(
+            @Param("bookerId") Long bookerId,
+            @Param("now") LocalDateTime now,
+            @Param("waiting") BookingStatus waiting,
+            @Param("rejected") BookingStatus rejected);
+
+    @Query(SUMMARY_COLUMNS + "FROM Booking b WHERE b.item.owner.id = :ownerId")
+    BookingSummaryDto summarizeByOwner(
+            @Param("ownerId") Long ownerId,
+            @Param("now") LocalDateTime now,
+            @Param("waiting") BookingStatus waiting,
+            @Param("rejected") BookingStatus rejected);
+
+    @EntityGraph(attributePaths = {"item", "item.owner", "booker"})
+    Optional<Booking> findWithDetailsById(Long id);
+
+    @Query("SELECT COUNT(b) > 0 FROM Booking b " +
+            "WHERE b.item.id = :itemId AND b.status = :status AND b.id <> :excludedId " +
+            "AND b.start < :end AND b.end > :start")
+    boolean existsOverlapping(
+            @Param("itemId") Long itemId,
+            @Param("status") BookingStatus status,
+            @Param("start") LocalDateTime start,
+            @Param("end") LocalDateTime end,
+            @Param("excludedId") Long excludedId);
+
+    @Query("SELECT new ru.practicum.shareit.booking.dto.ItemIntervalDto(b.item.id, b.id, b.start, b.end) " +
+            "FROM Booking b " +
+            "WHERE b.item.id IN :itemIds AND b.status = :status " +
+            "AND b.start < :end AND b.end > :start")
+    List<ItemIntervalDto> findIntervalsByItemIdInAndStatusBetween(
+            @Param("itemIds") Collection<Long> itemIds,
+            @Param("status") BookingStatus status,
+            @Param("start") LocalDateTime start,
+            @Param("end") LocalDateTime end);
+
+    @EntityGraph(attributePaths = {"item", "item.owner", "booker"})
+    List<Booking> findWithDetailsByIdIn(Collection<Long> ids);
+
+    /**
+     * Блокировки строк бронирований всегда берутся в порядке ID, чтобы пакетные решения владельца
+     * и планировщик не взаимоблокировались.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM Booking b WHERE b.id IN :ids ORDER BY b.id")
+    List<Booking> lockByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM Booking b WHERE b.id IN :ids AND b.status = :status ORDER BY b.id")
+    List<Booking> lockByIdInAndStatus(
+            @Param("ids") Collection<Long> ids,
+            @Param("status") BookingStatus status);
+
+    @Query("SELECT b.id FROM Booking b WHERE b.status = :status AND b.end < :before ORDER BY b.end ASC")
+    List<Long> findIdsByStatusAndEndBefore(
+            @Param("status") BookingStatus status,
+            @Param("before") LocalDateTime before,
+            Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM Booking b WHERE b.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
 
     boolean existsByBookerIdAndItemIdAndStatusAndEndBefore(
             Long bookerId, Long itemId, BookingStatus status, LocalDateTime end);
@@ -29,41 +112,207 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
             "ORDER BY b.start ASC")
     List<Booking> findNextBookings(@Param("itemId") Long itemId, @Param("now") LocalDateTime now);
 
+    @EntityGraph(attributePaths = {"item", "item.owner", "booker"})
     @Query("SELECT b FROM Booking b " +
-            "WHERE b.booker.id = :userId " +
-            "AND (:status = 'ALL' OR b.status = :status) " +
-            "ORDER BY b.start DESC")
-    List<Booking> findByBookerIdAndStatus(
-            @Param("userId") Long userId,
-            @Param("status") BookingStatus status);
+            "WHERE b.booker.id = :bookerId " +
+            KEYSET_CONDITION +
+            "ORDER BY b.start DESC, b.id DESC")
+    List<Booking> findAllByBooker(
+            @Param("bookerId") Long bookerId,
+            @Param("cursorStart") LocalDateTime cursorStart,
+            @Param("cursorId") Long cursorId,
+            Pageable pageable);
+
+    @EntityGraph(attributePaths = {"item", "item.owner", "booker"})
+    @Query("SELECT b FROM Booking b " +
+            "WHERE b.booker.id = :bookerId " +
+            "AND b.start < :now AND b.end > :now " +
+            KEYSET_CONDITION +
+            "ORDER BY b.start DESC, b.id DESC")
+    List<Booking> findCurrentByBooker(
+            @Param("bookerId") Long bookerId,
+            @Param("now") LocalDateTime now,
+            @Param("cursorStart") LocalDateTime cursorStart,
+            @Param("cursorId") Long cursorId,
+            Pageable pageable);
 
+    @EntityGraph(attributePaths = {"item", "item.owner", "booker"})
+    @Query("SELECT b FROM Booking b " +
+            "WHERE b.booker.id = :bookerId " +
+            "AND b.end < :now " +
+            KEYSET_CONDITION +
+            "ORDER BY b.start DESC, b.id DESC")
+    List<Booking> findPastByBooker(
+            @Param("bookerId") Long bookerId,
+            @Param("now") LocalDateTime now,
+            @Param("cursorStart") LocalDateTime cursorStart,
+            @Param("cursorId") Long cursorId,
+            Pageable pageable);
+
+    @EntityGraph(attributePaths = {"item", "item.owner", "booker"})
+    @Query("SELECT b FROM Booking b " +
+            "WHERE b.booker.id = :bookerId " +
+            "AND b.start > :now " +
+            KEYSET_CONDITION +
+            "ORDER BY b.start DESC, b.id DESC")
+    List<Booking> findFutureByBooker(
+            @Param("bookerId") Long bookerId,
+            @Param("now") LocalDateTime now,
+            @Param("cursorStart") LocalDateTime cursorStart,
+            @Param("cursorId") Long cursorId,
+            Pageable pageable);
+
+    @EntityGraph(attributePaths = {"item", "item.owner", "booker"})
+    @Query("SELECT b FROM Booking b " +
+            "WHERE b.booker.id = :bookerId " +
+            "AND b.status = :status " +
+            KEYSET_CONDITION +
+            "ORDER BY b.start DESC, b.id DESC")
+    List<Booking> findByBookerAndStatus(
+            @Param("bookerId") Long bookerId,
+            @Param("status") BookingStatus status,
+            @Param("cursorStart") LocalDateTime cursorStart,
+            @Param("cursorId") Long cursorId,
+            Pageable pageable);
+
+    @EntityGraph(attributePaths = {"item", "item.owner", "booker"})
     @Query("SELECT b FROM Booking b " +
             "WHERE b.item.owner.id = :ownerId " +
-            "AND (:status = 'ALL' OR b.status = :status) " +
-            "ORDER BY b.start DESC")
-    List<Booking> findByOwnerIdAndStatus(
+            KEYSET_CONDITION +
+            "ORDER BY b.start DESC, b.id DESC")
+    List<Booking> findAllByOwner(
             @Param("ownerId") Long ownerId,
-            @Param("status") BookingStatus status);
+            @Param("cursorStart") LocalDateTime cursorStart,
+            @Param("cursorId") Long cursorId,
+            Pageable pageable);
+
+    @EntityGraph(attributePaths = {"item", "item.owner", "booker"})
+    @Query("SELECT b FROM Booking b " +
+            "WHERE b.item.owner.id = :ownerId " +
+            "AND b.start < :now AND b.end > :now " +
+            KEYSET_CONDITION +
+            "ORDER BY b.start DESC, b.id DESC")
+    List<Booking> findCurrentByOwner(
+            @Param("ownerId") Long ownerId,
+            @Param("now") LocalDateTime now,
+            @Param("cursorStart") LocalDateTime cursorStart,
+            @Param("cursorId") Long cursorId,
+            Pageable pageable);
 
-    List<Booking> findByItemIdAndEndBeforeOrderByEndDesc(Long itemId, LocalDateTime now);
+    @EntityGraph(attributePaths = {"item", "item.owner", "booker"})
+    @Query("SELECT b FROM Booking b " +
+            "WHERE b.item.owner.id = :ownerId " +
+            "AND b.end < :now " +
+            KEYSET_CONDITION +
+            "ORDER BY b.start DESC, b.id DESC")
+    List<Booking> findPastByOwner(
+            @Param("ownerId") Long ownerId,
+            @Param("now") LocalDateTime now,
+            @Param("cursorStart") LocalDateTime cursorStart,
+            @Param("cursorId") Long cursorId,
+            Pageable pageable);
+
+    @EntityGraph(attributePaths = {"item", "item.owner", "booker"})
+    @Query("SELECT b FROM Booking b " +
+            "WHERE b.item.owner.id = :ownerId " +
+            "AND b.start > :now " +
+            KEYSET_CONDITION +
+            "ORDER BY b.start DESC, b.id DESC")
+    List<Booking> findFutureByOwner(
+            @Param("ownerId") Long ownerId,
+            @Param("now") LocalDateTime now,
+            @Param("cursorStart") LocalDateTime cursorStart,
+            @Param("cursorId") Long cursorId,
+            Pageable pageable);
 
-    List<Booking> findByItemIdAndStartAfterOrderByStartAsc(Long itemId, LocalDateTime now);
+    @EntityGraph(attributePaths = {"item", "item.owner", "booker"})
+    @Query("SELECT b FROM Booking b " +
+            "WHERE b.item.owner.id = :ownerId " +
+            "AND b.status = :status " +
+            KEYSET_CONDITION +
+            "ORDER BY b.start DESC, b.id DESC")
+    List<Booking> findByOwnerAndStatus(
+            @Param("ownerId") Long ownerId,
+            @Param("status") BookingStatus status,
+            @Param("cursorStart") LocalDateTime cursorStart,
+            @Param("cursorId") Long cursorId,
+            Pageable pageable);
 
-    List<Booking> findByBookerIdOrderByStartDesc(Long userId);
+    @Query(value = "SELECT ranked.item_id AS itemId, ranked.id AS id, ranked.booker_id AS bookerId " +
+            "FROM (SELECT b.item_id, b.id, b.booker_id, " +
+            "ROW_NUMBER() OVER (PARTITION BY b.item_id ORDER BY b.end_date DESC, b.id DESC) AS rn " +
+            "FROM bookings b " +
+            "WHERE b.item_id IN (:itemIds) AND b.end_date < :now) ranked " +
+            "WHERE ranked.rn = 1", nativeQuery = true)
+    List<BookingShortView> findLastByItemIds(
+            @Param("itemIds") Collection<Long> itemIds,
+            @Param("now") LocalDateTime now);
 
-    List<Booking> findByItemOwnerIdOrderByStartDesc(Long ownerId);
+    @Query(value = "SELECT ranked.item_id AS itemId, ranked.id AS id, ranked.booker_id AS bookerId " +
+            "FROM (SELECT b.item_id, b.id, b.booker_id, " +
+            "ROW_NUMBER() OVER (PARTITION BY b.item_id ORDER BY b.start_date ASC, b.id ASC) AS rn " +
+            "FROM bookings b " +
+            "WHERE b.item_id IN (:itemIds) AND b.start_date > :now) ranked " +
+            "WHERE ranked.rn = 1", nativeQuery = true)
+    List<BookingShortView> findNextByItemIds(
+            @Param("itemIds") Collection<Long> itemIds,
+            @Param("now") LocalDateTime now);
 
     Optional<Booking> findFirstByBookerIdAndItemIdAndEndBeforeOrderByEndDesc(Long userId, Long itemId, LocalDateTime now);
 
-    @Query("SELECT CASE WHEN COUNT(b) > 0 THEN true ELSE false END " +
+    @Query("SELECT new ru.practicum.shareit.booking.dto.BookingIntervalDto(b.id, b.start, b.end) " +
             "FROM Booking b " +
             "WHERE b.item.id = :itemId " +
             "AND b.status = :status " +
-            "AND ((b.start BETWEEN :start AND :end) OR (b.end BETWEEN :start AND :end) " +
-            "OR (b.start <= :start AND b.end >= :end))")
-    boolean existsApprovedBookingsForItemBetweenDates(
+            "AND b.end > :now " +
+            "ORDER BY b.start ASC")
+    List<BookingIntervalDto> findIntervalsByItemIdAndStatus(
             @Param("itemId") Long itemId,
             @Param("status") BookingStatus status,
-            @Param("start") LocalDateTime start,
-            @Param("end") LocalDateTime end);
-}
\ No newline at end of file
+            @Param("now") LocalDateTime now);
+
+    @Query("SELECT new ru.practicum.shareit.booking.dto.BookingIntervalDto(b.id, b.start, b.end) " +
+            "FROM Booking b " +
+            "WHERE b.status = :status " +
+            "AND b.start <= :before")
+    List<BookingIntervalDto> findIntervalsByStatusAndStartBefore(
+            @Param("status") BookingStatus status,
+            @Param("before") LocalDateTime before);
+
+    @Query("SELECT new ru.practicum.shareit.booking.dto.BookingIntervalDto(b.id, b.start, b.end) " +
+            "FROM Booking b " +
+            "WHERE b.status = :status " +
+            "AND b.start > :from AND b.start <= :to")
+    List<BookingIntervalDto> findIntervalsByStatusAndStartBetween(
+            @Param("status") BookingStatus status,
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to);
+
+    @Query("SELECT new ru.practicum.shareit.booking.dto.BookingIntervalDto(b.id, b.start, b.end) " +
+            "FROM Booking b " +
+            "WHERE b.status = :status " +
+            "AND b.end > :from AND b.end <= :to")
+    List<BookingIntervalDto> findIntervalsByStatusAndEndBetween(
+            @Param("status") BookingStatus status,
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to);
+
+    @Query("SELECT MAX(b.id) FROM Booking b")
+    Long findMaxId();
+
+    @Query("SELECT b.id FROM Booking b WHERE b.id > :afterId ORDER BY b.id")
+    List<Long> findIdsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    // Пара сравнивается целиком, чтобы страница читалась диапазоном ix_bookings_status_booker_item_end
+    @Query("SELECT new ru.practicum.shareit.booking.dto.ApprovedPairDto(b.booker.id, b.item.id, MIN(b.end)) " +
+            "FROM Booking b " +
+            "WHERE b.status = :status " +
+            "AND (b.booker.id, b.item.id) > (:bookerId, :itemId) " +
+            "GROUP BY b.booker.id, b.item.id " +
+            "ORDER BY b.booker.id, b.item.id")
+    List<ApprovedPairDto> findPairsByStatusAfter(
+            @Param("status") BookingStatus status,
+            @Param("bookerId") Long bookerId,
+            @Param("itemId") Long itemId,
+            Pageable pageable);
+}
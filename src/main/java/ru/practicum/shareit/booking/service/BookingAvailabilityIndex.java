@@ -0,0 +1,242 @@
+package ru.practicum.shareit.booking.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.practicum.shareit.booking.dto.BookingIntervalDto;
+import ru.practicum.shareit.booking.dto.BusyIntervalDto;
+import ru.practicum.shareit.booking.event.BookingEvent;
+import ru.practicum.shareit.booking.event.BookingEventType;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.event.ItemEvent;
+import ru.practicum.shareit.item.event.ItemEventType;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Индекс подтверждённых бронирований по вещам для проверки пересечений без запроса в БД.
+ * Интервалы вещи загружаются при первом обращении и обновляются после коммита подтверждения/отклонения.
+ * Хранятся только ещё не завершившиеся бронирования. Число вещей ограничено
+ * shareit.booking.availability-index-size: сверх него вытесняются произвольные другие вещи и при следующем
+ * обращении читаются заново; удалённая вещь убирается сразу.
+ */
+@Component
+public class BookingAvailabilityIndex {
+    private final BookingRepository bookingRepository;
+    private final int maxItems;
+    private final ConcurrentMap<Long, ItemIntervals> intervalsByItem = new ConcurrentHashMap<>();
+
+    public BookingAvailabilityIndex(BookingRepository bookingRepository,
+                                    @Value("${shareit.booking.availability-index-size:10000}") int maxItems) {
+        this.bookingRepository = bookingRepository;
+        this.maxItems = maxItems;
+    }
+
+    public boolean hasConflict(Long itemId, LocalDateTime start, LocalDateTime end) {
+        return intervals(itemId).overlaps(toEpochMilli(start), toEpochMilli(end));
+    }
+
+    public List<BusyIntervalDto> getBusyIntervals(Long itemId, LocalDateTime from, LocalDateTime to) {
+        return intervals(itemId).busyBetween(toEpochMilli(from), toEpochMilli(to));
+    }
+
+    @TransactionalEventListener
+    public void onBookingEvent(BookingEvent event) {
+        if (event.getType() == BookingEventType.APPROVED) {
+            long now = toEpochMilli(LocalDateTime.now());
+            intervalsByItem.computeIfPresent(event.getItemId(), (itemId, intervals) -> intervals.with(
+                    event.getBookingId(), toEpochMilli(event.getStart()), toEpochMilli(event.getEnd()), now));
+        } else if (event.getType() == BookingEventType.REJECTED) {
+            intervalsByItem.computeIfPresent(event.getItemId(),
+                    (itemId, intervals) -> intervals.without(event.getBookingId()));
+        }
+    }
+
+    @TransactionalEventListener
+    public void onItemEvent(ItemEvent event) {
+        if (event.getType() == ItemEventType.DELETED) {
+            intervalsByItem.remove(event.getItemId());
+        }
+    }
+
+    private ItemIntervals intervals(Long itemId) {
+        ItemIntervals intervals = intervalsByItem.get(itemId);
+        if (intervals != null) {
+            return intervals;
+        }
+        intervals = intervalsByItem.computeIfAbsent(itemId, this::load);
+        // Вытесненная вещь ничего не теряет: события после коммита уже в БД, и загрузка их увидит
+        Iterator<Long> others = intervalsByItem.keySet().iterator();
+        while (intervalsByItem.size() > maxItems && others.hasNext()) {
+            if (!others.next().equals(itemId)) {
+                others.remove();
+            }
+        }
+        return intervals;
+    }
+
+    private ItemIntervals load(Long itemId) {
+        List<BookingIntervalDto> bookings = bookingRepository.findIntervalsByItemIdAndStatus(
+                itemId, BookingStatus.APPROVED, LocalDateTime.now());
+
+        int size = bookings.size();
+        long[] ids = new long[size];
+        long[] starts = new long[size];
+        long[] ends = new long[size];
+        for (int i = 0; i < size; i++) {
+            BookingIntervalDto booking = bookings.get(i);
+            ids[i] = booking.getId();
+            starts[i] = toEpochMilli(booking.getStart());
+            ends[i] = toEpochMilli(booking.getEnd());
+        }
+        return new ItemIntervals(ids, starts, ends);
+    }
+
+    private static long toEpochMilli(LocalDateTime dateTime) {
+        return dateTime.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    private static LocalDateTime fromEpochMilli(long epochMilli) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMilli), ZoneOffset.UTC);
+    }
+
+    /**
+     * Неизменяемый набор интервалов одной вещи, отсортированный по началу.
+     * maxEnds[i] — максимальный конец среди интервалов 0..i, что даёт проверку пересечения за O(log n).
+     * busyStarts/busyEnds — те же интервалы, слитые в непересекающиеся диапазоны занятости.
+     */
+    private static final class ItemIntervals {
+        private final long[] ids;
+        private final long[] starts;
+        private final long[] ends;
+        private final long[] maxEnds;
+        private final long[] busyStarts;
+        private final long[] busyEnds;
+
+        private ItemIntervals(long[] ids, long[] starts, long[] ends) {
+            this.ids = ids;
+            this.starts = starts;
+            this.ends = ends;
+            this.maxEnds = new long[ends.length];
+            long max = Long.MIN_VALUE;
+            for (int i = 0; i < ends.length; i++) {
+                max = Math.max(max, ends[i]);
+                maxEnds[i] = max;
+            }
+
+            long[] mergedStarts = new long[starts.length];
+            long[] mergedEnds = new long[starts.length];
+            int merged = 0;
+            for (int i = 0; i < starts.length; i++) {
+                if (merged > 0 && starts[i] <= mergedEnds[merged - 1]) {
+                    mergedEnds[merged - 1] = Math.max(mergedEnds[merged - 1], ends[i]);
+                } else {
+                    mergedStarts[merged] = starts[i];
+                    mergedEnds[merged++] = ends[i];
+                }
+            }
+            this.busyStarts = Arrays.copyOf(mergedStarts, merged);
+            this.busyEnds = Arrays.copyOf(mergedEnds, merged);
+        }
+
+        boolean overlaps(long start, long end) {
+            int candidates = countStartingBefore(end);
+            return candidates > 0 && maxEnds[candidates - 1] > start;
+        }
+
+        List<BusyIntervalDto> busyBetween(long from, long to) {
+            List<BusyIntervalDto> result = new ArrayList<>();
+            for (int i = 0; i < busyStarts.length && busyStarts[i] < to; i++) {
+                if (busyEnds[i] > from) {
+                    result.add(new BusyIntervalDto(
+                            fromEpochMilli(Math.max(busyStarts[i], from)),
+                            fromEpochMilli(Math.min(busyEnds[i], to))));
+                }
+            }
+            return result;
+        }
+
+        ItemIntervals with(long id, long start, long end, long now) {
+            if (indexOf(id) >= 0) {
+                return this;
+            }
+            int size = 0;
+            for (long existingEnd : ends) {
+                if (existingEnd > now) {
+                    size++;
+                }
+            }
+            long[] newIds = new long[size + 1];
+            long[] newStarts = new long[size + 1];
+            long[] newEnds = new long[size + 1];
+            int target = 0;
+            boolean inserted = false;
+            for (int i = 0; i < starts.length; i++) {
+                if (ends[i] <= now) {
+                    continue;
+                }
+                if (!inserted && starts[i] > start) {
+                    newIds[target] = id;
+                    newStarts[target] = start;
+                    newEnds[target++] = end;
+                    inserted = true;
+                }
+                newIds[target] = ids[i];
+                newStarts[target] = starts[i];
+                newEnds[target++] = ends[i];
+            }
+            if (!inserted) {
+                newIds[target] = id;
+                newStarts[target] = start;
+                newEnds[target] = end;
+            }
+            return new ItemIntervals(newIds, newStarts, newEnds);
+        }
+
+        ItemIntervals without(long id) {
+            int index = indexOf(id);
+            if (index < 0) {
+                return this;
+            }
+            return new ItemIntervals(remove(ids, index), remove(starts, index), remove(ends, index));
+        }
+
+        private int countStartingBefore(long end) {
+            int low = 0;
+            int high = starts.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (starts[mid] < end) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        private int indexOf(long id) {
+            for (int i = 0; i < ids.length; i++) {
+                if (ids[i] == id) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private static long[] remove(long[] values, int index) {
+            long[] result = Arrays.copyOf(values, values.length - 1);
+            System.arraycopy(values, index + 1, result, index, values.length - index - 1);
+            return result;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package ru.practicum.shareit.booking.service;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.repository.ArchivedBookingRepository;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.cache.ExistenceFilter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Фильтр заведомо несуществующих ID бронирований. Архивированные бронирования сохраняют свой ID
+ * и по-прежнему доступны, поэтому ID берутся из обеих таблиц.
+ */
+@Component
+public class BookingIdFilter extends ExistenceFilter {
+    private final BookingRepository bookingRepository;
+    private final ArchivedBookingRepository archivedBookingRepository;
+
+    public BookingIdFilter(BookingRepository bookingRepository, ArchivedBookingRepository archivedBookingRepository) {
+        super("bookings");
+        this.bookingRepository = bookingRepository;
+        this.archivedBookingRepository = archivedBookingRepository;
+    }
+
+    @Override
+    protected Long findMaxId() {
+        return Stream.of(bookingRepository.findMaxId(), archivedBookingRepository.findMaxId())
+                .filter(Objects::nonNull)
+                .max(Long::compare)
+                .orElse(null);
+    }
+
+    @Override
+    protected List<Long> findIdsAfter(Long afterId, Pageable pageable) {
+        // Первые N из объединения обязательно входят в первые N своей таблицы
+        List<Long> ids = new ArrayList<>(bookingRepository.findIdsAfter(afterId, pageable));
+        ids.addAll(archivedBookingRepository.findIdsAfter(afterId, pageable));
+        return ids.stream()
+                .sorted()
+                .distinct()
+                .limit(pageable.getPageSize())
+                .collect(Collectors.toList());
+    }
+}
@@ -3,62 +3,95 @@ package ru.practicum.shareit.booking.service;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import ru.practicum.shareit.booking.dto.BookingShortDto;
+import ru.practicum.shareit.booking.dto.BookingShortView;
+import ru.practicum.shareit.booking.dto.BusyIntervalDto;
+import ru.practicum.shareit.booking.mapper.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.ArchivedBookingRepository;
 import ru.practicum.shareit.booking.repository.BookingRepository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class BookingInfoService {
     private final BookingRepository bookingRepository;
+    private final BookingAvailabilityIndex availabilityIndex;
+    private final ArchivedBookingRepository archivedBookingRepository;
+    private final CompletedBookingIndex completedBookingIndex;
 
     public BookingShortDto getLastBooking(Long itemId) {
-        List<Booking> lastBookings = bookingRepository.findByItemIdAndEndBeforeOrderByEndDesc(
-                itemId, LocalDateTime.now());
-
-        return lastBookings.stream()
-                .findFirst()
-                .map(this::convertToShortDto)
-                .orElse(null);
+        return getLastBookings(List.of(itemId)).get(itemId);
     }
 
     public BookingShortDto getNextBooking(Long itemId) {
-        List<Booking> nextBookings = bookingRepository.findByItemIdAndStartAfterOrderByStartAsc(
-                itemId, LocalDateTime.now());
+        return getNextBookings(List.of(itemId)).get(itemId);
+    }
+
+    public Map<Long, BookingShortDto> getLastBookings(Collection<Long> itemIds) {
+        if (itemIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Map<Long, BookingShortDto> lastBookings = new HashMap<>(toShortDtoMap(
+                bookingRepository.findLastByItemIds(itemIds, LocalDateTime.now())));
+        // Вещи без завершённых бронирований в горячей таблице могут иметь их в архиве
+        List<Long> missing = itemIds.stream()
+                .filter(itemId -> !lastBookings.containsKey(itemId))
+                .collect(Collectors.toList());
+        if (!missing.isEmpty()) {
+            lastBookings.putAll(toShortDtoMap(archivedBookingRepository.findLastByItemIds(missing)));
+        }
+        return lastBookings;
+    }
 
-        return nextBookings.stream()
-                .findFirst()
-                .map(this::convertToShortDto)
-                .orElse(null);
+    public Map<Long, BookingShortDto> getNextBookings(Collection<Long> itemIds) {
+        if (itemIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        return toShortDtoMap(bookingRepository.findNextByItemIds(itemIds, LocalDateTime.now()));
     }
 
+    /**
+     * Есть ли у пользователя завершённое подтверждённое бронирование вещи. Обычно отвечает CompletedBookingIndex;
+     * его промах не окончателен и перепроверяется в БД — отказ в отзыве и так редкий путь.
+     */
     public boolean hasUserBookedItem(Long userId, Long itemId) {
+        if (completedBookingIndex.covers(userId, itemId) && completedBookingIndex.hasCompletedBooking(userId, itemId)) {
+            return true;
+        }
         return bookingRepository.existsByBookerIdAndItemIdAndStatusAndEndBefore(
-                userId, itemId, BookingStatus.APPROVED, LocalDateTime.now());
+                userId, itemId, BookingStatus.APPROVED, LocalDateTime.now())
+                || archivedBookingRepository.existsByBookerIdAndItemIdAndStatus(userId, itemId, BookingStatus.APPROVED);
     }
 
-    private BookingShortDto convertToShortDto(Booking booking) {
-        return BookingShortDto.builder()
-                .id(booking.getId())
-                .bookerId(booking.getBooker().getId())
-                .build();
+    private Map<Long, BookingShortDto> toShortDtoMap(List<BookingShortView> bookings) {
+        return bookings.stream()
+                .collect(Collectors.toMap(
+                        BookingShortView::getItemId,
+                        booking -> new BookingShortDto(booking.getId(), booking.getBookerId())));
     }
 
     // Дополнительные методы при необходимости
     public Optional<Booking> findLastUserBookingForItem(Long userId, Long itemId) {
         return bookingRepository.findFirstByBookerIdAndItemIdAndEndBeforeOrderByEndDesc(
-                userId, itemId, LocalDateTime.now());
+                        userId, itemId, LocalDateTime.now())
+                .or(() -> archivedBookingRepository.findFirstByBookerIdAndItemIdOrderByEndDesc(userId, itemId)
+                        .map(BookingMapper::toBooking));
+    }
+
+    public List<BusyIntervalDto> getBusyIntervals(Long itemId, LocalDateTime from, LocalDateTime to) {
+        return availabilityIndex.getBusyIntervals(itemId, from, to);
     }
 
     public boolean isItemAvailableForDates(Long itemId, LocalDateTime start, LocalDateTime end) {
-        return !bookingRepository.existsApprovedBookingsForItemBetweenDates(
-                itemId,
-                BookingStatus.APPROVED,
-                start,
-                end);
+        return !availabilityIndex.hasConflict(itemId, start, end);
     }
 }
\ No newline at end of file
@@ -1,18 +1,33 @@
 package ru.practicum.shareit.booking.service;
 
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
 import ru.practicum.shareit.booking.dto.BookingRequestDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.dto.BookingSummaryDto;
+import ru.practicum.shareit.pagination.KeysetCursor;
 
 import java.util.List;
 
 public interface BookingService {
     BookingResponseDto createBooking(BookingRequestDto bookingDto, Long bookerId);
 
+    List<BookingBatchResultDto> createBookings(List<BookingRequestDto> bookingDtos, Long bookerId);
+
     BookingResponseDto approveBooking(Long bookingId, Long ownerId, boolean approved);
 
+    List<BookingBatchResultDto> decideBookings(List<BookingDecisionDto> decisions, Long ownerId);
+
     BookingResponseDto getBookingById(Long bookingId, Long userId);
 
-    List<BookingResponseDto> getUserBookings(Long userId, String state);
+    List<BookingResponseDto> getUserBookings(Long userId, String state, KeysetCursor cursor, int size);
+
+    List<BookingResponseDto> getOwnerBookings(Long ownerId, String state, KeysetCursor cursor, int size);
+
+    BookingSummaryDto getUserBookingSummary(Long userId);
+
+    BookingSummaryDto getOwnerBookingSummary(Long ownerId);
 
-    List<BookingResponseDto> getOwnerBookings(Long ownerId, String state);
+    SseEmitter subscribeToEvents(Long userId);
 }
\ No newline at end of file
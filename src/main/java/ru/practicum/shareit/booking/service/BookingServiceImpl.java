@@ -1,20 +1,45 @@
 package ru.practicum.shareit.booking.service;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.booking.archive.BookingArchiver;
 import ru.practicum.shareit.booking.dto.*;
+import ru.practicum.shareit.booking.event.BookingEvent;
+import ru.practicum.shareit.booking.event.BookingEventBroadcaster;
+import ru.practicum.shareit.booking.event.BookingEventType;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
+import ru.practicum.shareit.booking.model.ArchivedBooking;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingState;
 import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.ArchivedBookingRepository;
 import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.exception.*;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.service.ItemInfoService;
+import ru.practicum.shareit.pagination.KeysetCursor;
+import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.service.UserService;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Service
@@ -25,20 +50,19 @@ public class BookingServiceImpl implements BookingService {
     private final BookingRepository bookingRepository;
     private final UserService userService;
     private final ItemInfoService itemInfoService;
+    private final BookingInfoService bookingInfoService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final BookingEventBroadcaster eventBroadcaster;
+    private final ArchivedBookingRepository archivedBookingRepository;
+    private final BookingArchiver bookingArchiver;
+    private final BookingIdFilter bookingIdFilter;
 
     @Override
     @Transactional
     public BookingResponseDto createBooking(BookingRequestDto bookingDto, Long bookerId) {
         validateBookingDates(bookingDto);
         Item item = itemInfoService.getById(bookingDto.getItemId());
-
-        if (!item.getAvailable()) {
-            throw new UnavailableItemException("Вещь недоступна для бронирования");
-        }
-
-        if (item.getOwner().getId().equals(bookerId)) {
-            throw new ValidationException("Владелец не может забронировать свое");
-        }
+        validateBookedItem(bookingDto, item, bookerId);
 
         Booking booking = BookingMapper.toBooking(bookingDto);
         booking.setItem(item);
@@ -46,30 +70,185 @@ public class BookingServiceImpl implements BookingService {
         booking.setStatus(BookingStatus.WAITING);
 
         Booking savedBooking = bookingRepository.save(booking);
+        bookingIdFilter.created(savedBooking.getId());
+        eventPublisher.publishEvent(BookingEvent.of(BookingEventType.CREATED, savedBooking));
         return BookingMapper.toResponseDto(savedBooking);
     }
 
     @Override
     @Transactional
-    public BookingResponseDto approveBooking(Long bookingId, Long ownerId, boolean approved) {
-        Booking booking = bookingRepository.findById(bookingId)
-                .orElseThrow(() -> new NotFoundException("Бронирование не найдено"));
+    public List<BookingBatchResultDto> createBookings(List<BookingRequestDto> bookingDtos, Long bookerId) {
+        User booker = userService.getById(bookerId);
+        Map<Long, Item> items = itemInfoService.getByIds(bookingDtos.stream()
+                .filter(Objects::nonNull)
+                .map(BookingRequestDto::getItemId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet()));
 
-        if (!booking.getItem().getOwner().getId().equals(ownerId)) {
-            throw new AccessDeniedException("Только владелец может подтвердить бронирование");
+        BookingBatchResultDto[] results = new BookingBatchResultDto[bookingDtos.size()];
+        List<Integer> acceptedIndexes = new ArrayList<>();
+        List<Booking> accepted = new ArrayList<>();
+        for (int i = 0; i < bookingDtos.size(); i++) {
+            BookingRequestDto bookingDto = bookingDtos.get(i);
+            try {
+                if (bookingDto == null) {
+                    throw new BookingException("Бронирование не может быть пустым");
+                }
+                validateBookingDates(bookingDto);
+                Item item = items.get(bookingDto.getItemId());
+                if (item == null) {
+                    throw new NotFoundException("Вещь с ID " + bookingDto.getItemId() + " не найдена");
+                }
+                validateBookedItem(bookingDto, item, bookerId);
+
+                Booking booking = BookingMapper.toBooking(bookingDto);
+                booking.setItem(item);
+                booking.setBooker(booker);
+                booking.setStatus(BookingStatus.WAITING);
+                acceptedIndexes.add(i);
+                accepted.add(booking);
+            } catch (BookingException | NotFoundException | UnavailableItemException | ValidationException e) {
+                results[i] = BookingBatchResultDto.builder()
+                        .index(i)
+                        .error(e.getMessage())
+                        .build();
+            }
         }
 
-        if (booking.getStatus() != BookingStatus.WAITING) {
-            throw new ValidationException("Статус бронирования не может измениться");
+        bookingRepository.insertAll(accepted);
+        for (int i = 0; i < accepted.size(); i++) {
+            Booking booking = accepted.get(i);
+            bookingIdFilter.created(booking.getId());
+            eventPublisher.publishEvent(BookingEvent.of(BookingEventType.CREATED, booking));
+            results[acceptedIndexes.get(i)] = BookingBatchResultDto.builder()
+                    .index(acceptedIndexes.get(i))
+                    .booking(BookingMapper.toResponseDto(booking))
+                    .build();
+        }
+        return Arrays.asList(results);
+    }
+
+    @Override
+    @Transactional
+    public BookingResponseDto approveBooking(Long bookingId, Long ownerId, boolean approved) {
+        if (!bookingIdFilter.mightExist(bookingId)) {
+            throw new NotFoundException("Бронирование не найдено");
+        }
+        // Статус читается под блокировкой строки: иначе решение владельца и автоотклонение планировщиком
+        // могли бы оба увидеть WAITING, и победило бы то, что закоммичено позже
+        if (bookingRepository.lockByIdIn(List.of(bookingId)).isEmpty()) {
+            throw new NotFoundException("Бронирование не найдено");
+        }
+        Booking booking = bookingRepository.findWithDetailsById(bookingId).orElseThrow();
+        validateDecision(booking, ownerId);
+        if (approved) {
+            itemInfoService.lockByIds(List.of(booking.getItem().getId()));
+            validateNoApprovedOverlap(booking);
         }
 
         booking.setStatus(approved ? BookingStatus.APPROVED : BookingStatus.REJECTED);
-        return BookingMapper.toResponseDto(bookingRepository.save(booking));
+        Booking savedBooking = bookingRepository.save(booking);
+        eventPublisher.publishEvent(BookingEvent.of(
+                approved ? BookingEventType.APPROVED : BookingEventType.REJECTED, savedBooking));
+        return BookingMapper.toResponseDto(savedBooking);
+    }
+
+    @Override
+    @Transactional
+    public List<BookingBatchResultDto> decideBookings(List<BookingDecisionDto> decisions, Long ownerId) {
+        userService.getById(ownerId);
+        Set<Long> bookingIds = decisions.stream()
+                .filter(Objects::nonNull)
+                .map(BookingDecisionDto::getBookingId)
+                .collect(Collectors.toSet());
+        // Как и в approveBooking, статусы проверяются только после блокировки строк
+        bookingRepository.lockByIdIn(bookingIds);
+        Map<Long, Booking> bookings = bookingRepository.findWithDetailsByIdIn(bookingIds)
+                .stream()
+                .collect(Collectors.toMap(Booking::getId, Function.identity()));
+
+        BookingBatchResultDto[] results = new BookingBatchResultDto[decisions.size()];
+        Map<Integer, Booking> decided = new LinkedHashMap<>();
+        Set<Long> decidedIds = new HashSet<>();
+        for (int i = 0; i < decisions.size(); i++) {
+            BookingDecisionDto decision = decisions.get(i);
+            try {
+                if (decision == null) {
+                    throw new ValidationException("Решение по бронированию не может быть пустым");
+                }
+                Booking booking = bookings.get(decision.getBookingId());
+                if (booking == null) {
+                    throw new NotFoundException("Бронирование не найдено");
+                }
+                validateDecision(booking, ownerId);
+                if (!decidedIds.add(booking.getId())) {
+                    throw new ValidationException("Статус бронирования не может измениться");
+                }
+                decided.put(i, booking);
+            } catch (AccessDeniedException | NotFoundException | ValidationException e) {
+                results[i] = BookingBatchResultDto.builder()
+                        .index(i)
+                        .error(e.getMessage())
+                        .build();
+            }
+        }
+
+        // Подтверждения проверяются до изменения статусов: запрос к БД иначе вызвал бы преждевременный flush
+        List<Booking> toApprove = decided.entrySet().stream()
+                .filter(entry -> decisions.get(entry.getKey()).getApproved())
+                .map(Map.Entry::getValue)
+                .collect(Collectors.toList());
+        itemInfoService.lockByIds(toApprove.stream()
+                .map(booking -> booking.getItem().getId())
+                .collect(Collectors.toSet()));
+        Map<Long, List<ItemIntervalDto>> approvedIntervals = findApprovedIntervals(toApprove);
+        Map<Long, List<Booking>> approvedByItem = new HashMap<>();
+        Iterator<Map.Entry<Integer, Booking>> iterator = decided.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Integer, Booking> entry = iterator.next();
+            Booking booking = entry.getValue();
+            if (!decisions.get(entry.getKey()).getApproved()) {
+                continue;
+            }
+            List<Booking> approvedInBatch = approvedByItem.computeIfAbsent(
+                    booking.getItem().getId(), itemId -> new ArrayList<>());
+            try {
+                if (approvedIntervals.getOrDefault(booking.getItem().getId(), List.of()).stream()
+                        .anyMatch(interval -> overlaps(booking, interval))
+                        || approvedInBatch.stream().anyMatch(other -> overlaps(booking, other))) {
+                    throw new ValidationException("Вещь уже забронирована на выбранные даты");
+                }
+                approvedInBatch.add(booking);
+            } catch (ValidationException e) {
+                results[entry.getKey()] = BookingBatchResultDto.builder()
+                        .index(entry.getKey())
+                        .error(e.getMessage())
+                        .build();
+                iterator.remove();
+            }
+        }
+
+        decided.forEach((index, booking) -> {
+            boolean approved = decisions.get(index).getApproved();
+            // Изменения уходят одним JDBC-батчем UPDATE при коммите транзакции
+            booking.setStatus(approved ? BookingStatus.APPROVED : BookingStatus.REJECTED);
+            eventPublisher.publishEvent(BookingEvent.of(
+                    approved ? BookingEventType.APPROVED : BookingEventType.REJECTED, booking));
+            results[index] = BookingBatchResultDto.builder()
+                    .index(index)
+                    .booking(BookingMapper.toResponseDto(booking))
+                    .build();
+        });
+        return Arrays.asList(results);
     }
 
     @Override
     public BookingResponseDto getBookingById(Long bookingId, Long userId) {
-        Booking booking = bookingRepository.findById(bookingId)
+        if (!bookingIdFilter.mightExist(bookingId)) {
+            throw new NotFoundException("Бронирование не найдено");
+        }
+        Booking booking = bookingRepository.findWithDetailsById(bookingId)
+                .or(() -> archivedBookingRepository.findWithDetailsById(bookingId).map(BookingMapper::toBooking))
                 .orElseThrow(() -> new NotFoundException("Бронирование не найдено"));
 
         if (!booking.getBooker().getId().equals(userId) &&
@@ -81,49 +260,197 @@ public class BookingServiceImpl implements BookingService {
     }
 
     @Override
-    public List<BookingResponseDto> getUserBookings(Long userId, String state) {
+    public List<BookingResponseDto> getUserBookings(Long userId, String state, KeysetCursor cursor, int size) {
         userService.getById(userId);
-        return filterBookings(bookingRepository.findByBookerIdOrderByStartDesc(userId), state)
-                .stream()
-                .map(BookingMapper::toResponseDto)
-                .collect(Collectors.toList());
+        return toResponseDtos(findUserBookings(userId, BookingState.from(state), cursor, PageRequest.of(0, size)));
     }
 
     @Override
-    public List<BookingResponseDto> getOwnerBookings(Long ownerId, String state) {
+    public List<BookingResponseDto> getOwnerBookings(Long ownerId, String state, KeysetCursor cursor, int size) {
         userService.getById(ownerId);
-        return filterBookings(bookingRepository.findByItemOwnerIdOrderByStartDesc(ownerId), state)
-                .stream()
-                .map(BookingMapper::toResponseDto)
-                .collect(Collectors.toList());
+        return toResponseDtos(findOwnerBookings(ownerId, BookingState.from(state), cursor, PageRequest.of(0, size)));
+    }
+
+    @Override
+    public BookingSummaryDto getUserBookingSummary(Long userId) {
+        userService.getById(userId);
+        LocalDateTime now = LocalDateTime.now();
+        return sum(
+                bookingRepository.summarizeByBooker(userId, now, BookingStatus.WAITING, BookingStatus.REJECTED),
+                archivedBookingRepository.summarizeByBooker(userId, now, BookingStatus.WAITING, BookingStatus.REJECTED));
+    }
+
+    @Override
+    public BookingSummaryDto getOwnerBookingSummary(Long ownerId) {
+        userService.getById(ownerId);
+        LocalDateTime now = LocalDateTime.now();
+        return sum(
+                bookingRepository.summarizeByOwner(ownerId, now, BookingStatus.WAITING, BookingStatus.REJECTED),
+                archivedBookingRepository.summarizeByOwner(ownerId, now, BookingStatus.WAITING, BookingStatus.REJECTED));
+    }
+
+    @Override
+    public SseEmitter subscribeToEvents(Long userId) {
+        userService.getById(userId);
+        return eventBroadcaster.subscribe(userId);
+    }
+
+    private List<Booking> findUserBookings(Long userId, BookingState state, KeysetCursor cursor, Pageable page) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime cursorStart = cursor.getTimestamp();
+        Long cursorId = cursor.getId();
+        switch (state) {
+            case CURRENT:
+                return bookingRepository.findCurrentByBooker(userId, now, cursorStart, cursorId, page);
+            case PAST:
+                return withArchived(bookingRepository.findPastByBooker(userId, now, cursorStart, cursorId, page),
+                        page, () -> archivedBookingRepository.findAllByBooker(userId, cursorStart, cursorId, page));
+            case FUTURE:
+                return bookingRepository.findFutureByBooker(userId, now, cursorStart, cursorId, page);
+            case WAITING:
+            case REJECTED:
+                BookingStatus status = BookingStatus.valueOf(state.name());
+                return withArchived(
+                        bookingRepository.findByBookerAndStatus(userId, status, cursorStart, cursorId, page),
+                        page, () -> archivedBookingRepository.findByBookerAndStatus(
+                                userId, status, cursorStart, cursorId, page));
+            case ALL:
+            default:
+                return withArchived(bookingRepository.findAllByBooker(userId, cursorStart, cursorId, page),
+                        page, () -> archivedBookingRepository.findAllByBooker(userId, cursorStart, cursorId, page));
+        }
     }
 
-    private List<Booking> filterBookings(List<Booking> bookings, String state) {
+    private List<Booking> findOwnerBookings(Long ownerId, BookingState state, KeysetCursor cursor, Pageable page) {
         LocalDateTime now = LocalDateTime.now();
-        switch (state.toUpperCase()) {
-            case "CURRENT":
-                return bookings.stream()
-                        .filter(b -> b.getStart().isBefore(now) && b.getEnd().isAfter(now))
-                        .collect(Collectors.toList());
-            case "PAST":
-                return bookings.stream()
-                        .filter(b -> b.getEnd().isBefore(now))
-                        .collect(Collectors.toList());
-            case "FUTURE":
-                return bookings.stream()
-                        .filter(b -> b.getStart().isAfter(now))
-                        .collect(Collectors.toList());
-            case "WAITING":
-                return bookings.stream()
-                        .filter(b -> b.getStatus() == BookingStatus.WAITING)
-                        .collect(Collectors.toList());
-            case "REJECTED":
-                return bookings.stream()
-                        .filter(b -> b.getStatus() == BookingStatus.REJECTED)
-                        .collect(Collectors.toList());
-            case "ALL":
+        LocalDateTime cursorStart = cursor.getTimestamp();
+        Long cursorId = cursor.getId();
+        switch (state) {
+            case CURRENT:
+                return bookingRepository.findCurrentByOwner(ownerId, now, cursorStart, cursorId, page);
+            case PAST:
+                return withArchived(bookingRepository.findPastByOwner(ownerId, now, cursorStart, cursorId, page),
+                        page, () -> archivedBookingRepository.findAllByOwner(ownerId, cursorStart, cursorId, page));
+            case FUTURE:
+                return bookingRepository.findFutureByOwner(ownerId, now, cursorStart, cursorId, page);
+            case WAITING:
+            case REJECTED:
+                BookingStatus status = BookingStatus.valueOf(state.name());
+                return withArchived(
+                        bookingRepository.findByOwnerAndStatus(ownerId, status, cursorStart, cursorId, page),
+                        page, () -> archivedBookingRepository.findByOwnerAndStatus(
+                                ownerId, status, cursorStart, cursorId, page));
+            case ALL:
             default:
-                return bookings;
+                return withArchived(bookingRepository.findAllByOwner(ownerId, cursorStart, cursorId, page),
+                        page, () -> archivedBookingRepository.findAllByOwner(ownerId, cursorStart, cursorId, page));
+        }
+    }
+
+    /**
+     * Дополняет страницу из горячей таблицы архивными бронированиями. Архив читается, только если страница
+     * неполная или её последняя запись началась раньше границы архива: иначе архивные записи на неё не попадают.
+     */
+    private List<Booking> withArchived(List<Booking> bookings, Pageable page,
+                                       Supplier<List<ArchivedBooking>> archivedQuery) {
+        int size = page.getPageSize();
+        if (bookings.size() == size
+                && !bookings.get(size - 1).getStart().isBefore(bookingArchiver.getArchiveBoundary())) {
+            return bookings;
+        }
+        List<ArchivedBooking> archived = archivedQuery.get();
+        if (archived.isEmpty()) {
+            return bookings;
+        }
+
+        // Таблицы читаются разными запросами: пачка, перенесённая архиватором между ними, придёт из обеих
+        Map<Long, Booking> byId = new LinkedHashMap<>();
+        bookings.forEach(booking -> byId.put(booking.getId(), booking));
+        archived.forEach(booking -> byId.putIfAbsent(booking.getId(), BookingMapper.toBooking(booking)));
+        List<Booking> merged = new ArrayList<>(byId.values());
+        merged.sort(Comparator.comparing(Booking::getStart).thenComparing(Booking::getId).reversed());
+        return merged.size() > size ? merged.subList(0, size) : merged;
+    }
+
+    private BookingSummaryDto sum(BookingSummaryDto hot, BookingSummaryDto archived) {
+        return BookingSummaryDto.builder()
+                .all(hot.getAll() + archived.getAll())
+                .current(hot.getCurrent() + archived.getCurrent())
+                .past(hot.getPast() + archived.getPast())
+                .future(hot.getFuture() + archived.getFuture())
+                .waiting(hot.getWaiting() + archived.getWaiting())
+                .rejected(hot.getRejected() + archived.getRejected())
+                .build();
+    }
+
+    private List<BookingResponseDto> toResponseDtos(List<Booking> bookings) {
+        return bookings.stream()
+                .map(BookingMapper::toResponseDto)
+                .collect(Collectors.toList());
+    }
+
+    private void validateDecision(Booking booking, Long ownerId) {
+        if (!booking.getItem().getOwner().getId().equals(ownerId)) {
+            throw new AccessDeniedException("Только владелец может подтвердить бронирование");
+        }
+
+        if (booking.getStatus() != BookingStatus.WAITING) {
+            throw new ValidationException("Статус бронирования не может измениться");
+        }
+    }
+
+    /**
+     * Проверка по БД, а не по BookingAvailabilityIndex: индекс обновляется после коммита, то есть уже после
+     * снятия блокировки вещи, и следующее подтверждение могло бы его не увидеть. Вызывать под блокировкой вещи.
+     */
+    private void validateNoApprovedOverlap(Booking booking) {
+        if (bookingRepository.existsOverlapping(booking.getItem().getId(), BookingStatus.APPROVED,
+                booking.getStart(), booking.getEnd(), booking.getId())) {
+            throw new ValidationException("Вещь уже забронирована на выбранные даты");
+        }
+    }
+
+    private static boolean overlaps(Booking booking, Booking other) {
+        return booking.getStart().isBefore(other.getEnd()) && booking.getEnd().isAfter(other.getStart());
+    }
+
+    private static boolean overlaps(Booking booking, ItemIntervalDto interval) {
+        return !booking.getId().equals(interval.getId())
+                && booking.getStart().isBefore(interval.getEnd()) && booking.getEnd().isAfter(interval.getStart());
+    }
+
+    /**
+     * Подтверждённые интервалы вещей из пакета одним запросом — в пределах от самого раннего начала
+     * до самого позднего окончания подтверждаемых бронирований.
+     */
+    private Map<Long, List<ItemIntervalDto>> findApprovedIntervals(List<Booking> toApprove) {
+        if (toApprove.isEmpty()) {
+            return Map.of();
+        }
+        Set<Long> itemIds = new HashSet<>();
+        LocalDateTime start = toApprove.get(0).getStart();
+        LocalDateTime end = toApprove.get(0).getEnd();
+        for (Booking booking : toApprove) {
+            itemIds.add(booking.getItem().getId());
+            start = booking.getStart().isBefore(start) ? booking.getStart() : start;
+            end = booking.getEnd().isAfter(end) ? booking.getEnd() : end;
+        }
+        return bookingRepository.findIntervalsByItemIdInAndStatusBetween(itemIds, BookingStatus.APPROVED, start, end)
+                .stream()
+                .collect(Collectors.groupingBy(ItemIntervalDto::getItemId));
+    }
+
+    private void validateBookedItem(BookingRequestDto bookingDto, Item item, Long bookerId) {
+        if (!item.getAvailable()) {
+            throw new UnavailableItemException("Вещь недоступна для бронирования");
+        }
+
+        if (item.getOwner().getId().equals(bookerId)) {
+            throw new ValidationException("Владелец не может забронировать свое");
+        }
+
+        if (!bookingInfoService.isItemAvailableForDates(item.getId(), bookingDto.getStart(), bookingDto.getEnd())) {
+            throw new ValidationException("Вещь уже забронирована на выбранные даты");
         }
     }
 
@@ -0,0 +1,147 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.practicum.shareit.booking.dto.ApprovedPairDto;
+import ru.practicum.shareit.booking.event.BookingEvent;
+import ru.practicum.shareit.booking.event.BookingEventType;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.ArchivedBookingRepository;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Индекс пар пользователь–вещь с подтверждёнными бронированиями для проверки права оставить отзыв без запроса в БД.
+ * Для пары хранится самое раннее окончание её подтверждённых бронирований, поэтому пара становится «завершённой»
+ * ровно в момент окончания, без ожидания события ENDED. Бронирование подтверждается один раз и дальше статус
+ * не меняет (архивация сохраняет статус), так что достаточно событий APPROVED после коммита.
+ * Индекс строится в фоне при старте из обеих таблиц; пока он не готов, проверка идёт через БД.
+ * Окончательным считается только найденная пара: подтверждения другого экземпляра и строки, записанные
+ * в обход сервисов, сюда не попадают, поэтому промах перепроверяется в БД (см. BookingInfoService).
+ * Пара занимает в памяти около 90 байт (узел ConcurrentHashMap и два Long), поэтому число пар ограничено
+ * shareit.booking.completed-index-max-pairs: при переполнении индекс освобождает память и перестаёт отвечать,
+ * а проверка до перезапуска идёт через БД.
+ */
+@Slf4j
+@Component
+public class CompletedBookingIndex {
+    private static final int LOAD_BATCH_SIZE = 1000;
+    private static final long MAX_PACKED_ID = 0xFFFF_FFFFL;
+
+    private final BookingRepository bookingRepository;
+    private final ArchivedBookingRepository archivedBookingRepository;
+    private final int maxPairs;
+
+    private final ConcurrentMap<Long, Long> firstEndByPair = new ConcurrentHashMap<>();
+    private volatile boolean ready;
+    private volatile boolean overflowed;
+
+    public CompletedBookingIndex(BookingRepository bookingRepository,
+                                 ArchivedBookingRepository archivedBookingRepository,
+                                 @Value("${shareit.booking.completed-index-max-pairs:1000000}") int maxPairs) {
+        this.bookingRepository = bookingRepository;
+        this.archivedBookingRepository = archivedBookingRepository;
+        this.maxPairs = maxPairs;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        Thread loader = new Thread(this::load, "completed-booking-index");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    /**
+     * Может ли индекс ответить за эту пару.
+     */
+    public boolean covers(Long bookerId, Long itemId) {
+        return ready && !overflowed && bookerId <= MAX_PACKED_ID && itemId <= MAX_PACKED_ID;
+    }
+
+    public boolean hasCompletedBooking(Long bookerId, Long itemId) {
+        Long firstEnd = firstEndByPair.get(pack(bookerId, itemId));
+        return firstEnd != null && firstEnd < toEpochMilli(LocalDateTime.now());
+    }
+
+    @TransactionalEventListener
+    public void onBookingEvent(BookingEvent event) {
+        if (event.getType() == BookingEventType.APPROVED) {
+            record(event.getBookerId(), event.getItemId(), event.getEnd());
+        }
+    }
+
+    void load() {
+        try {
+            // Минимум коммутативен, поэтому события, пришедшие во время загрузки, применяются сразу
+            loadFrom(bookingRepository::findPairsByStatusAfter);
+            loadFrom(archivedBookingRepository::findPairsByStatusAfter);
+            if (overflowed) {
+                return;
+            }
+            ready = true;
+            log.info("Индекс завершённых бронирований построен: пар {}", firstEndByPair.size());
+        } catch (RuntimeException e) {
+            log.error("Не удалось построить индекс завершённых бронирований, проверка отзывов пойдёт через БД", e);
+        }
+    }
+
+    private void loadFrom(PairFinder finder) {
+        long lastBookerId = 0;
+        long lastItemId = 0;
+        List<ApprovedPairDto> batch;
+        do {
+            batch = finder.find(BookingStatus.APPROVED, lastBookerId, lastItemId, PageRequest.of(0, LOAD_BATCH_SIZE));
+            for (ApprovedPairDto pair : batch) {
+                record(pair.getBookerId(), pair.getItemId(), pair.getFirstEnd());
+            }
+            if (!batch.isEmpty()) {
+                ApprovedPairDto last = batch.get(batch.size() - 1);
+                lastBookerId = last.getBookerId();
+                lastItemId = last.getItemId();
+            }
+        } while (batch.size() == LOAD_BATCH_SIZE && !overflowed);
+    }
+
+    private void record(Long bookerId, Long itemId, LocalDateTime end) {
+        if (overflowed || bookerId > MAX_PACKED_ID || itemId > MAX_PACKED_ID) {
+            return;
+        }
+        firstEndByPair.merge(pack(bookerId, itemId), toEpochMilli(end), Math::min);
+        if (firstEndByPair.size() > maxPairs) {
+            overflow();
+        }
+    }
+
+    private synchronized void overflow() {
+        if (overflowed) {
+            return;
+        }
+        overflowed = true;
+        firstEndByPair.clear();
+        log.warn("Пар в индексе завершённых бронирований больше {}, проверка отзывов переходит в БД", maxPairs);
+    }
+
+    private static long pack(long bookerId, long itemId) {
+        return bookerId << 32 | itemId;
+    }
+
+    private static long toEpochMilli(LocalDateTime dateTime) {
+        return dateTime.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    @FunctionalInterface
+    private interface PairFinder {
+        List<ApprovedPairDto> find(BookingStatus status, Long bookerId, Long itemId, Pageable pageable);
+    }
+}
@@ -0,0 +1,96 @@
+package ru.practicum.shareit.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Ограниченный по размеру кэш неизменяемых значений, вытесняются давно не читанные записи.
+ * Поколение защищает от гонки чтения из БД со сбросом: значение, прочитанное до evict, в кэш уже не попадёт.
+ * Статистика публикуется в метриках cache.gets, cache.puts, cache.evictions и cache.size с тегом cache=name.
+ */
+public class BoundedCache<K, V> {
+    private final int maxSize;
+    private final Map<K, V> values = new LinkedHashMap<>(16, 0.75f, true);
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong puts = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private long generation;
+
+    public BoundedCache(String name, int maxSize, MeterRegistry meterRegistry) {
+        this.maxSize = maxSize;
+        FunctionCounter.builder("cache.gets", hits, AtomicLong::get)
+                .tag("cache", name).tag("result", "hit").register(meterRegistry);
+        FunctionCounter.builder("cache.gets", misses, AtomicLong::get)
+                .tag("cache", name).tag("result", "miss").register(meterRegistry);
+        FunctionCounter.builder("cache.puts", puts, AtomicLong::get)
+                .tag("cache", name).register(meterRegistry);
+        FunctionCounter.builder("cache.evictions", evictions, AtomicLong::get)
+                .tag("cache", name).register(meterRegistry);
+        Gauge.builder("cache.size", this, BoundedCache::size)
+                .tag("cache", name).register(meterRegistry);
+    }
+
+    /**
+     * Значение из кэша или null, если его там нет.
+     */
+    public synchronized V get(K key) {
+        V value = values.get(key);
+        (value == null ? misses : hits).incrementAndGet();
+        return value;
+    }
+
+    /**
+     * Текущее поколение; его нужно взять до чтения значения из БД и передать в put.
+     */
+    public synchronized long generation() {
+        return generation;
+    }
+
+    public synchronized void put(K key, V value, long seenGeneration) {
+        if (generation != seenGeneration) {
+            return;
+        }
+        values.put(key, value);
+        puts.incrementAndGet();
+        Iterator<K> eldest = values.keySet().iterator();
+        while (values.size() > maxSize) {
+            eldest.next();
+            eldest.remove();
+            evictions.incrementAndGet();
+        }
+    }
+
+    /**
+     * Сбрасывает значение сразу и, если идёт транзакция, ещё раз после её коммита:
+     * иначе параллельное чтение успело бы положить в кэш строку в состоянии до коммита.
+     */
+    public void evict(K key) {
+        remove(key);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    remove(key);
+                }
+            });
+        }
+    }
+
+    private synchronized void remove(K key) {
+        generation++;
+        values.remove(key);
+    }
+
+    private synchronized int size() {
+        return values.size();
+    }
+}
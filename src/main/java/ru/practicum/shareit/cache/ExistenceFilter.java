@@ -0,0 +1,163 @@
+package ru.practicum.shareit.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Фильтр заведомо несуществующих ID сущности: максимальный выданный ID и битовая карта пропусков ниже него
+ * (удалённые строки и откатившиеся вставки). ID больше максимума или отмеченный в карте отклоняется без запроса к БД;
+ * остальные «возможно существуют» и проверяются как обычно. Ошибка возможна только в сторону «возможно существует».
+ * Созданные ID учитываются сразу после вставки, удалённые — после коммита. Строки, вставленные в обход сервисов
+ * или другим экземпляром приложения, замечаются при пересчёте максимума, который делается не чаще раза
+ * в MAX_ID_REFRESH_INTERVAL; пока пересчёт придержан, ID выше известного максимума проверяются в БД.
+ * Карта строится в фоне при старте, до этого фильтр пропускает все ID.
+ */
+@Slf4j
+public abstract class ExistenceFilter {
+    private static final int LOAD_BATCH_SIZE = 10_000;
+    private static final Duration MAX_ID_REFRESH_INTERVAL = Duration.ofSeconds(1);
+
+    private final String name;
+    private final long maxIdRefreshInterval;
+    private final BitSet missing = new BitSet();
+    private final Set<Long> createdWhileLoading = new HashSet<>();
+    private long maxId;
+    private long lastMaxIdRefresh;
+    private volatile boolean ready;
+
+    protected ExistenceFilter(String name) {
+        this(name, MAX_ID_REFRESH_INTERVAL);
+    }
+
+    ExistenceFilter(String name, Duration maxIdRefreshInterval) {
+        this.name = name;
+        this.maxIdRefreshInterval = maxIdRefreshInterval.toNanos();
+    }
+
+    protected abstract Long findMaxId();
+
+    /**
+     * Следующие по возрастанию ID после afterId.
+     */
+    protected abstract List<Long> findIdsAfter(Long afterId, Pageable pageable);
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        Thread loader = new Thread(this::load, name + "-id-filter");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    /**
+     * false — строки с таким ID точно нет; true — она может быть, нужно проверить в БД.
+     */
+    public boolean mightExist(Long id) {
+        if (!ready || id == null) {
+            return true;
+        }
+        if (id <= 0) {
+            return false;
+        }
+        synchronized (this) {
+            if (id <= maxId) {
+                return id > Integer.MAX_VALUE || !missing.get(id.intValue());
+            }
+            long now = System.nanoTime();
+            if (now - lastMaxIdRefresh < maxIdRefreshInterval) {
+                return true;
+            }
+            lastMaxIdRefresh = now;
+        }
+        // Строку могли вставить в обход сервисов: сверяемся с БД, но не чаще интервала
+        Long actualMaxId = findMaxId();
+        synchronized (this) {
+            if (actualMaxId != null && actualMaxId > maxId) {
+                maxId = actualMaxId;
+            }
+            return id <= maxId;
+        }
+    }
+
+    public synchronized void created(Long id) {
+        maxId = Math.max(maxId, id);
+        if (id <= Integer.MAX_VALUE) {
+            missing.clear(id.intValue());
+        }
+        if (!ready) {
+            createdWhileLoading.add(id);
+        }
+    }
+
+    /**
+     * Отмечает ID удалённым после коммита текущей транзакции; при откате строка остаётся существующей.
+     */
+    public void deleted(Long id) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            markMissing(id);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                markMissing(id);
+            }
+        });
+    }
+
+    private synchronized void markMissing(Long id) {
+        if (id > 0 && id <= Integer.MAX_VALUE) {
+            missing.set(id.intValue());
+        }
+    }
+
+    void load() {
+        try {
+            BitSet present = new BitSet();
+            long lastId = 0;
+            List<Long> batch;
+            do {
+                batch = findIdsAfter(lastId, PageRequest.of(0, LOAD_BATCH_SIZE));
+                for (Long id : batch) {
+                    if (id <= Integer.MAX_VALUE) {
+                        present.set(id.intValue());
+                    }
+                }
+                if (!batch.isEmpty()) {
+                    lastId = batch.get(batch.size() - 1);
+                }
+            } while (batch.size() == LOAD_BATCH_SIZE);
+
+            synchronized (this) {
+                // Пропуски ниже последнего прочитанного ID; удалённые во время загрузки уже отмечены в missing
+                int loadedUntil = (int) Math.min(lastId, Integer.MAX_VALUE);
+                BitSet gaps = new BitSet(loadedUntil + 1);
+                gaps.set(1, loadedUntil + 1);
+                gaps.andNot(present);
+                missing.or(gaps);
+                createdWhileLoading.forEach(id -> {
+                    if (id <= Integer.MAX_VALUE) {
+                        missing.clear(id.intValue());
+                    }
+                });
+                createdWhileLoading.clear();
+                maxId = Math.max(maxId, lastId);
+                lastMaxIdRefresh = System.nanoTime();
+                ready = true;
+                log.info("Фильтр ID {} построен: максимальный ID {}, пропусков {}", name, maxId, missing.cardinality());
+            }
+        } catch (RuntimeException e) {
+            log.error("Не удалось построить фильтр ID {}, все ID будут проверяться в БД", name, e);
+        }
+    }
+}
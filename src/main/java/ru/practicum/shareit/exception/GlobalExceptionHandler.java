@@ -15,7 +15,8 @@ public class GlobalExceptionHandler {
 
     @ExceptionHandler
     public ResponseEntity<AppError> catchNotFoundException(NotFoundException e) {
-        log.error(e.getMessage(), e);
+        // Несуществующие ID — ожидаемая ошибка клиента, стек вызовов в лог не нужен
+        log.info("404: {}", e.getMessage());
         return new ResponseEntity<>(new AppError(HttpStatus.NOT_FOUND.value(), e.getMessage()),
                 HttpStatus.NOT_FOUND);
     }
@@ -66,6 +67,16 @@ public class GlobalExceptionHandler {
         );
     }
 
+    @ExceptionHandler(PaginationException.class)
+    public ResponseEntity<AppError> handlePaginationException(PaginationException ex) {
+        // Битый или устаревший курсор — ошибка клиента, стек вызовов в лог не нужен
+        log.info("400: {}", ex.getMessage());
+        return new ResponseEntity<>(
+                new AppError(HttpStatus.BAD_REQUEST.value(), ex.getMessage()),
+                HttpStatus.BAD_REQUEST
+        );
+    }
+
     @ExceptionHandler(ConstraintViolationException.class)
     public ResponseEntity<AppError> handleConstraintViolation(ConstraintViolationException ex) {
         String message = ex.getConstraintViolations().stream()
@@ -1,7 +1,11 @@
 package ru.practicum.shareit.exception;
 
+/**
+ * Сущность не найдена. Стек вызовов не собирается: это ожидаемая ошибка клиента,
+ * и её часто вызывают запросы с несуществующими ID.
+ */
 public class NotFoundException extends RuntimeException {
     public NotFoundException(String message) {
-        super(message);
+        super(message, null, false, false);
     }
 }
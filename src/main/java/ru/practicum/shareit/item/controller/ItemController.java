@@ -1,23 +1,37 @@
 package ru.practicum.shareit.item.controller;
 
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Positive;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemSearchPage;
+import ru.practicum.shareit.item.dto.ItemWithBookingsDto;
 import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.search.ItemNameSuggester;
+import ru.practicum.shareit.item.search.SearchMode;
 import ru.practicum.shareit.item.service.CommentService;
 import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.pagination.KeysetCursor;
+import ru.practicum.shareit.pagination.SearchCursor;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
 @RequestMapping("/items")
 @RequiredArgsConstructor
+@Validated
 public class ItemController {
     private final ItemService itemService;
     private final CommentService commentService;
@@ -53,16 +67,44 @@ public class ItemController {
         return itemService.getItemDtoById(itemId, userId);
     }
 
+    @GetMapping("/{itemId}/availability")
+    public ItemAvailabilityDto getItemAvailability(
+            @PathVariable Long itemId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return itemService.getAvailability(itemId, from, to);
+    }
+
     @GetMapping
-    public List<ItemDto> getAllItemsByOwner(
+    public List<ItemWithBookingsDto> getAllItemsByOwner(
             @RequestHeader("X-Sharer-User-Id") Long ownerId) {
         return itemService.getAllByOwner(ownerId);
     }
 
     @GetMapping("/search")
-    public List<ItemDto> searchItems(
-            @RequestParam String text) {
-        return itemService.search(text);
+    public ResponseEntity<List<ItemDto>> searchItems(
+            @RequestParam String text,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
+            @RequestParam(defaultValue = "EXACT")
+            @Pattern(regexp = SearchMode.PATTERN, message = "Режим поиска должен быть EXACT или FUZZY") String mode,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") @Positive @Max(100) int size) {
+        ItemSearchPage page = itemService.search(
+                text, start, end, SearchMode.from(mode), SearchCursor.decode(cursor), size);
+        if (page.getNextCursor() == null) {
+            return ResponseEntity.ok(page.getItems());
+        }
+        return ResponseEntity.ok()
+                .header(KeysetCursor.NEXT_CURSOR_HEADER, page.getNextCursor().encode())
+                .body(page.getItems());
+    }
+
+    @GetMapping("/suggest")
+    public List<String> suggestItemNames(
+            @RequestParam(defaultValue = "") String prefix,
+            @RequestParam(defaultValue = "10") @Positive @Max(ItemNameSuggester.MAX_SUGGESTIONS) int limit) {
+        return itemService.suggest(prefix, limit);
     }
 
     @DeleteMapping("/{itemId}")
@@ -79,4 +121,19 @@ public class ItemController {
             @RequestHeader("X-Sharer-User-Id") Long userId) {
         return commentService.addComment(itemId, userId, commentDto);
     }
+
+    @GetMapping("/{itemId}/comments")
+    public ResponseEntity<List<CommentDto>> getComments(
+            @PathVariable Long itemId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") @Positive @Max(100) int size) {
+        List<CommentDto> comments = commentService.getComments(itemId, KeysetCursor.decode(cursor), size);
+        if (comments.size() < size) {
+            return ResponseEntity.ok(comments);
+        }
+        CommentDto last = comments.get(comments.size() - 1);
+        return ResponseEntity.ok()
+                .header(KeysetCursor.NEXT_CURSOR_HEADER, KeysetCursor.after(last.getCreated(), last.getId()).encode())
+                .body(comments);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,15 @@
+package ru.practicum.shareit.item.dto;
+
+import java.time.LocalDateTime;
+
+public interface CommentView {
+    Long getId();
+
+    String getText();
+
+    Long getItemId();
+
+    String getAuthorName();
+
+    LocalDateTime getCreated();
+}
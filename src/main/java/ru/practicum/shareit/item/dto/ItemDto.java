@@ -26,6 +26,7 @@ public class ItemDto {
 
     private Long ownerId;
     private Long requestId;
+    private Long commentCount;
     private BookingShortDto lastBooking;
     private BookingShortDto nextBooking;
     private List<CommentDto> comments;
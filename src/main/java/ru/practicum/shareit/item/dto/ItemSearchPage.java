@@ -0,0 +1,22 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import ru.practicum.shareit.pagination.SearchCursor;
+
+import java.util.List;
+
+/**
+ * Страница результатов поиска. nextCursor отсутствует, если страница последняя. Страница с курсором бывает
+ * неполной, когда почти все совпадения заняты в выбранный период: выдача продолжается по курсору.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ItemSearchPage {
+    private List<ItemDto> items;
+    private SearchCursor nextCursor;
+}
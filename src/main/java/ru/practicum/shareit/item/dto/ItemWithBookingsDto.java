@@ -19,6 +19,7 @@ public class ItemWithBookingsDto {
     private Boolean available;
     private Long ownerId;
     private Long requestId;
+    private Long commentCount;
     private BookingShortDto lastBooking;
     private BookingShortDto nextBooking;
     private List<CommentDto> comments;
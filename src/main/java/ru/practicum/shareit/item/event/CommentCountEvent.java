@@ -0,0 +1,15 @@
+package ru.practicum.shareit.item.event;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Новое значение счётчика отзывов вещи. Остальные поля вещи при этом не меняются,
+ * поэтому отдельное событие не задевает поисковые индексы.
+ */
+@Value
+@Builder
+public class CommentCountEvent {
+    Long itemId;
+    Long commentCount;
+}
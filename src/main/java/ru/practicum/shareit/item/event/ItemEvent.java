@@ -0,0 +1,29 @@
+package ru.practicum.shareit.item.event;
+
+import lombok.Builder;
+import lombok.Value;
+import ru.practicum.shareit.item.dto.ItemDto;
+
+import java.util.Objects;
+
+/**
+ * Изменение вещи. before отсутствует у созданной вещи, after — у удалённой.
+ */
+@Value
+@Builder
+public class ItemEvent {
+    ItemEventType type;
+    Long itemId;
+    ItemDto before;
+    ItemDto after;
+
+    /**
+     * Меняет ли событие то, что видит поиск: название, описание или доступность.
+     */
+    public boolean changesSearchFields() {
+        return before == null || after == null
+                || !Objects.equals(before.getName(), after.getName())
+                || !Objects.equals(before.getDescription(), after.getDescription())
+                || !Objects.equals(before.getAvailable(), after.getAvailable());
+    }
+}
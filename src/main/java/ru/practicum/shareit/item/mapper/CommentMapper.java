@@ -1,6 +1,7 @@
 package ru.practicum.shareit.item.mapper;
 
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.CommentView;
 import ru.practicum.shareit.item.model.Comment;
 
 import java.time.LocalDateTime;
@@ -15,6 +16,15 @@ public class CommentMapper {
                 .build();
     }
 
+    public static CommentDto toDto(CommentView comment) {
+        return CommentDto.builder()
+                .id(comment.getId())
+                .text(comment.getText())
+                .authorName(comment.getAuthorName())
+                .created(comment.getCreated())
+                .build();
+    }
+
     public static Comment toComment(CommentDto commentDto) {
         return Comment.builder()
                 .text(commentDto.getText())
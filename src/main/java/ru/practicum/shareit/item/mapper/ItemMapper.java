@@ -21,6 +21,7 @@ public class ItemMapper {
                 .available(item.getAvailable())
                 .ownerId(item.getOwner() != null ? item.getOwner().getId() : null)
                 .requestId(item.getRequestId())
+                .commentCount(item.getCommentCount())
                 .build();
     }
 
@@ -35,6 +36,7 @@ public class ItemMapper {
                 .available(item.getAvailable())
                 .ownerId(item.getOwner() != null ? item.getOwner().getId() : null)
                 .requestId(item.getRequestId())
+                .commentCount(item.getCommentCount())
                 .lastBooking(lastBooking)
                 .nextBooking(nextBooking)
                 .comments(comments != null ? comments : Collections.emptyList())
@@ -9,7 +9,9 @@ import java.time.LocalDateTime;
 import java.util.Objects;
 
 @Entity
-@Table(name = "comments")
+@Table(name = "comments", indexes = {
+        @Index(name = "ix_comments_item_created", columnList = "item_id, created, id")
+})
 @Getter
 @Setter
 @NoArgsConstructor
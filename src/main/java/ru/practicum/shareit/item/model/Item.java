@@ -2,6 +2,7 @@ package ru.practicum.shareit.item.model;
 
 import lombok.*;
 
+import org.hibernate.annotations.ColumnDefault;
 import ru.practicum.shareit.user.model.User;
 
 import jakarta.persistence.*;
@@ -9,7 +10,9 @@ import jakarta.persistence.*;
 import java.util.Objects;
 
 @Entity
-@Table(name = "items")
+@Table(name = "items", indexes = {
+        @Index(name = "ix_items_owner", columnList = "owner_id")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -37,6 +40,12 @@ public class Item {
     @Column(name = "request_id")
     private Long requestId;
 
+    // Меняется только запросом CommentServiceImpl, поэтому не пишется при сохранении вещи
+    @Column(name = "comment_count", nullable = false, insertable = false, updatable = false)
+    @ColumnDefault("0")
+    @Builder.Default
+    private Long commentCount = 0L;
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -1,13 +1,50 @@
 package ru.practicum.shareit.item.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import ru.practicum.shareit.item.dto.CommentView;
 import ru.practicum.shareit.item.model.Comment;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 public interface CommentRepository extends JpaRepository<Comment, Long> {
+    String KEYSET_CONDITION = "AND (c.created < :cursorCreated OR (c.created = :cursorCreated AND c.id < :cursorId)) ";
+    String NEWEST_AT_LIMIT = "FROM comments n WHERE n.item_id = i.id " +
+            "ORDER BY n.created DESC, n.id DESC LIMIT 1 OFFSET (:limit - 1)";
+    String OLDEST = "FROM comments o WHERE o.item_id = i.id ORDER BY o.created, o.id LIMIT 1";
 
-    List<Comment> findByItemId(Long itemId);
+    @Query("SELECT c FROM Comment c " +
+            "JOIN FETCH c.author " +
+            "WHERE c.item.id = :itemId " +
+            KEYSET_CONDITION +
+            "ORDER BY c.created DESC, c.id DESC")
+    List<Comment> findPageByItemId(
+            @Param("itemId") Long itemId,
+            @Param("cursorCreated") LocalDateTime cursorCreated,
+            @Param("cursorId") Long cursorId,
+            Pageable pageable);
 
-    List<Comment> findByItemIdIn(List<Long> itemIds);
-}
\ No newline at end of file
+    // Последние limit отзывов каждой вещи. Сначала для вещи находится граница — limit-й с конца отзыв
+    // (или самый старый, если отзывов меньше), затем по ix_comments_item_created читается диапазон от неё
+    // до новейшего. Граница стоит не больше limit записей индекса, старая история отзывов не читается.
+    // LATERAL был бы короче, но в H2 его нет.
+    @Query(value = "SELECT c.id AS id, c.text AS text, c.item_id AS itemId, " +
+            "u.name AS authorName, c.created AS created " +
+            "FROM (SELECT i.id AS item_id, " +
+            "COALESCE((SELECT n.created " + NEWEST_AT_LIMIT + "), " +
+            "(SELECT o.created " + OLDEST + ")) AS cutoff_created, " +
+            "COALESCE((SELECT n.id " + NEWEST_AT_LIMIT + "), (SELECT o.id " + OLDEST + ")) AS cutoff_id " +
+            "FROM items i " +
+            "WHERE i.id IN (:itemIds)) bounds " +
+            "JOIN comments c ON c.item_id = bounds.item_id " +
+            "AND (c.created, c.id) >= (bounds.cutoff_created, bounds.cutoff_id) " +
+            "JOIN users u ON u.id = c.author_id " +
+            "ORDER BY c.item_id, c.created DESC, c.id DESC", nativeQuery = true)
+    List<CommentView> findLatestByItemIds(
+            @Param("itemIds") Collection<Long> itemIds,
+            @Param("limit") int limit);
+}
@@ -1,23 +1,100 @@
 package ru.practicum.shareit.item.repository;
 
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.item.model.Item;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 public interface ItemRepository extends JpaRepository<Item, Long> {
+    String TEXT_CONDITION = "AND (LOWER(i.name) LIKE LOWER(CONCAT('%', :text, '%')) " +
+            "OR LOWER(i.description) LIKE LOWER(CONCAT('%', :text, '%'))) ";
+    // Совпадение в названии ранжируется выше совпадения только в описании
+    String NAME_RANK = "CASE WHEN LOWER(i.name) LIKE LOWER(CONCAT('%', :text, '%')) THEN 2.0 ELSE 1.0 END";
+    String RANK_KEYSET_CONDITION = "AND (" + NAME_RANK + " < :cursorRank " +
+            "OR (" + NAME_RANK + " = :cursorRank AND i.id > :cursorId)) ";
 
     List<Item> findByOwnerId(Long ownerId);
 
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT i FROM Item i WHERE i.id IN :ids ORDER BY i.id")
+    List<Item> lockByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("UPDATE Item i SET i.commentCount = i.commentCount + 1 WHERE i.id = :itemId")
+    int incrementCommentCount(@Param("itemId") Long itemId);
+
+    @Query("SELECT i.commentCount FROM Item i WHERE i.id = :itemId")
+    Long findCommentCount(@Param("itemId") Long itemId);
+
+    List<Item> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    @Query("SELECT i FROM Item i " +
+            "WHERE i.available = true " +
+            TEXT_CONDITION +
+            RANK_KEYSET_CONDITION +
+            "ORDER BY " + NAME_RANK + " DESC, i.id ASC")
+    List<Item> findAvailableItemsByText(
+            @Param("text") String text,
+            @Param("cursorRank") Double cursorRank,
+            @Param("cursorId") Long cursorId,
+            Pageable pageable);
+
     @Query("SELECT i FROM Item i " +
             "WHERE i.available = true " +
-            "AND (LOWER(i.name) LIKE LOWER(CONCAT('%', :text, '%')) " +
-            "OR LOWER(i.description) LIKE LOWER(CONCAT('%', :text, '%')))")
+            TEXT_CONDITION +
+            RANK_KEYSET_CONDITION +
+            "AND NOT EXISTS (SELECT b.id FROM Booking b " +
+            "WHERE b.item = i " +
+            "AND b.status = :status " +
+            "AND b.start < :end " +
+            "AND b.end > :start) " +
+            "ORDER BY " + NAME_RANK + " DESC, i.id ASC")
+    List<Item> findAvailableItemsByTextFreeBetween(
+            @Param("text") String text,
+            @Param("status") BookingStatus status,
+            @Param("start") LocalDateTime start,
+            @Param("end") LocalDateTime end,
+            @Param("cursorRank") Double cursorRank,
+            @Param("cursorId") Long cursorId,
+            Pageable pageable);
+
+    @Query("SELECT i FROM Item i " +
+            "WHERE i.id IN :ids " +
+            "AND i.available = true " +
+            "AND NOT EXISTS (SELECT b.id FROM Booking b " +
+            "WHERE b.item = i " +
+            "AND b.status = :status " +
+            "AND b.start < :end " +
+            "AND b.end > :start)")
+    List<Item> findAvailableByIdInFreeBetween(
+            @Param("ids") Collection<Long> ids,
+            @Param("status") BookingStatus status,
+            @Param("start") LocalDateTime start,
+            @Param("end") LocalDateTime end);
 
-    List<Item> findAvailableItemsByText(String text);
+    @Query("SELECT i.name FROM Item i " +
+            "WHERE i.available = true " +
+            "AND LOWER(i.name) LIKE CONCAT(:prefix, '%') " +
+            "GROUP BY i.name " +
+            "ORDER BY COUNT(i) DESC, i.name ASC")
+    List<String> findAvailableNamesByPrefix(@Param("prefix") String prefix, Pageable pageable);
 
     List<Item> findAllByRequestId(Long requestId);
 
     List<Item> findAllByRequestIdIn(List<Long> requestIds);
-}
\ No newline at end of file
+
+    @Query("SELECT MAX(i.id) FROM Item i")
+    Long findMaxId();
+
+    @Query("SELECT i.id FROM Item i WHERE i.id > :afterId ORDER BY i.id")
+    List<Long> findIdsAfter(@Param("afterId") Long afterId, Pageable pageable);
+}
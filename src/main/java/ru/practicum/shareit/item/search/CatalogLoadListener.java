@@ -0,0 +1,20 @@
+package ru.practicum.shareit.item.search;
+
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.List;
+
+/**
+ * Структура в памяти, которая строится при старте из всей таблицы вещей за один общий проход ItemCatalogLoader.
+ */
+interface CatalogLoadListener {
+    /**
+     * Очередная порция вещей по возрастанию id.
+     */
+    void loadBatch(List<Item> batch);
+
+    /**
+     * Все вещи прочитаны: структура может начинать отвечать.
+     */
+    void loadFinished();
+}
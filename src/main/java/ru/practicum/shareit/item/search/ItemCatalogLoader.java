@@ -0,0 +1,68 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Читает таблицу вещей при старте один раз, в фоне, порциями по id, и раздаёт каждую порцию всем
+ * структурам поиска. Структура, упавшая на порции, выбывает из загрузки и так и не становится готовой,
+ * остальные достраиваются; ошибка чтения из БД оставляет неготовыми все.
+ */
+@Slf4j
+@Component
+public class ItemCatalogLoader {
+    private static final int LOAD_BATCH_SIZE = 1000;
+
+    private final ItemRepository itemRepository;
+    private final List<CatalogLoadListener> listeners;
+
+    ItemCatalogLoader(ItemRepository itemRepository, List<CatalogLoadListener> listeners) {
+        this.itemRepository = itemRepository;
+        this.listeners = listeners;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        Thread loader = new Thread(this::load, "item-catalog-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    void load() {
+        List<CatalogLoadListener> active = new ArrayList<>(listeners);
+        try {
+            long lastId = 0;
+            List<Item> batch;
+            do {
+                batch = itemRepository.findByIdGreaterThanOrderByIdAsc(lastId, PageRequest.of(0, LOAD_BATCH_SIZE));
+                Iterator<CatalogLoadListener> iterator = active.iterator();
+                while (iterator.hasNext()) {
+                    CatalogLoadListener listener = iterator.next();
+                    try {
+                        listener.loadBatch(batch);
+                    } catch (RuntimeException e) {
+                        log.error("Не удалось построить {}, поиск продолжит работать через БД",
+                                listener.getClass().getSimpleName(), e);
+                        iterator.remove();
+                    }
+                }
+                if (!batch.isEmpty()) {
+                    lastId = batch.get(batch.size() - 1).getId();
+                }
+            } while (batch.size() == LOAD_BATCH_SIZE && !active.isEmpty());
+        } catch (RuntimeException e) {
+            log.error("Не удалось прочитать вещи для поиска, поиск продолжит работать через БД", e);
+            return;
+        }
+        active.forEach(CatalogLoadListener::loadFinished);
+    }
+}
@@ -0,0 +1,290 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.event.ItemEvent;
+import ru.practicum.shareit.item.event.ItemEventType;
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Подсказки названий доступных вещей по префиксу. Название попадает в префиксное дерево под каждым своим
+ * суффиксом, начинающимся с границы слова, поэтому «аккумуляторная дрель» находится и по «акк», и по «дре».
+ * Каждый узел хранит готовый список лучших подсказок своего поддерева (чаще встречающиеся названия выше),
+ * так что ответ стоит O(длина префикса). При изменении вещи списки пересчитываются только вдоль затронутых путей.
+ * Дерево строится при старте из общего с поисковым индексом прохода ItemCatalogLoader.
+ */
+@Slf4j
+@Component
+public class ItemNameSuggester implements CatalogLoadListener {
+    public static final int MAX_SUGGESTIONS = 20;
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Comparator<Suggestion> RANK_ORDER = Comparator
+            .comparingInt((Suggestion suggestion) -> suggestion.count).reversed()
+            .thenComparingInt(suggestion -> suggestion.key.length())
+            .thenComparing(suggestion -> suggestion.key);
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Node root = new Node();
+    private final Map<String, Suggestion> suggestions = new HashMap<>();
+    private final Map<Long, String> countedNames = new HashMap<>();
+    private final Set<Long> changedWhileLoading = new HashSet<>();
+    private volatile boolean ready;
+
+    /**
+     * До limit названий, начинающихся с префикса или содержащих слово с таким началом.
+     * Пустой Optional означает, что дерево ещё не построено.
+     */
+    public Optional<List<String>> suggest(String prefix, int limit) {
+        if (!ready) {
+            return Optional.empty();
+        }
+        String normalized = normalize(prefix);
+        if (normalized.isEmpty()) {
+            return Optional.of(Collections.emptyList());
+        }
+
+        lock.readLock().lock();
+        try {
+            Node node = root;
+            for (int i = 0; i < normalized.length() && node != null; i++) {
+                node = node.child(normalized.charAt(i));
+            }
+            if (node == null) {
+                return Optional.of(Collections.emptyList());
+            }
+            return Optional.of(Arrays.stream(node.top)
+                    .limit(limit)
+                    .map(suggestion -> suggestion.display)
+                    .collect(Collectors.toList()));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener
+    public void onItemEvent(ItemEvent event) {
+        if (!event.changesSearchFields()) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (!ready) {
+                changedWhileLoading.add(event.getItemId());
+            }
+            ItemDto item = event.getAfter();
+            boolean visible = event.getType() != ItemEventType.DELETED && Boolean.TRUE.equals(item.getAvailable());
+            count(event.getItemId(), visible ? item.getName() : null);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void loadBatch(List<Item> batch) {
+        lock.writeLock().lock();
+        try {
+            for (Item item : batch) {
+                if (!changedWhileLoading.contains(item.getId())) {
+                    count(item.getId(), Boolean.TRUE.equals(item.getAvailable()) ? item.getName() : null);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void loadFinished() {
+        lock.writeLock().lock();
+        try {
+            changedWhileLoading.clear();
+            ready = true;
+            log.info("Дерево подсказок названий построено: названий {}", suggestions.size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Учитывает вещь с указанным названием; null — вещь больше не показывается в подсказках.
+     */
+    private void count(Long itemId, String name) {
+        String previous = name == null ? countedNames.remove(itemId) : countedNames.put(itemId, name);
+        if (previous != null && previous.equals(name)) {
+            return;
+        }
+        if (previous != null) {
+            adjust(previous, -1);
+        }
+        if (name != null) {
+            adjust(name, 1);
+        }
+    }
+
+    private void adjust(String name, int delta) {
+        String key = normalize(name);
+        if (key.isEmpty()) {
+            return;
+        }
+        Suggestion suggestion = suggestions.get(key);
+        if (suggestion == null) {
+            if (delta < 0) {
+                return;
+            }
+            suggestion = new Suggestion(key, name.trim());
+            suggestions.put(key, suggestion);
+        }
+        suggestion.count += delta;
+        boolean removed = suggestion.count <= 0;
+        if (removed) {
+            suggestions.remove(key);
+        }
+
+        for (int start = 0; start >= 0; start = nextWordStart(key, start)) {
+            updatePath(key.substring(start), suggestion, removed);
+        }
+    }
+
+    private void updatePath(String key, Suggestion suggestion, boolean removed) {
+        List<Node> path = new ArrayList<>(key.length() + 1);
+        Node node = root;
+        path.add(node);
+        for (int i = 0; i < key.length(); i++) {
+            Node next = node.child(key.charAt(i));
+            if (next == null) {
+                if (removed) {
+                    return;
+                }
+                next = node.addChild(key.charAt(i));
+            }
+            node = next;
+            path.add(node);
+        }
+
+        if (removed) {
+            node.terminals.remove(suggestion);
+        } else if (!node.terminals.contains(suggestion)) {
+            node.terminals.add(suggestion);
+        }
+
+        for (int i = path.size() - 1; i >= 0; i--) {
+            Node current = path.get(i);
+            if (i > 0 && current.isEmpty()) {
+                path.get(i - 1).removeChild(key.charAt(i - 1));
+            } else {
+                current.recomputeTop();
+            }
+        }
+    }
+
+    private static int nextWordStart(String key, int from) {
+        int space = key.indexOf(' ', from);
+        return space < 0 ? -1 : space + 1;
+    }
+
+    private static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        return WHITESPACE.matcher(text.trim().toLowerCase(Locale.ROOT)).replaceAll(" ");
+    }
+
+    private static final class Suggestion {
+        private final String key;
+        private final String display;
+        private int count;
+
+        private Suggestion(String key, String display) {
+            this.key = key;
+            this.display = display;
+        }
+    }
+
+    /**
+     * Узел дерева. Дети хранятся в отсортированных массивах, чтобы не держать HashMap на каждый символ.
+     */
+    private static final class Node {
+        private static final char[] NO_KEYS = new char[0];
+        private static final Node[] NO_CHILDREN = new Node[0];
+        private static final Suggestion[] NO_SUGGESTIONS = new Suggestion[0];
+
+        private char[] keys = NO_KEYS;
+        private Node[] children = NO_CHILDREN;
+        private final List<Suggestion> terminals = new ArrayList<>(1);
+        private Suggestion[] top = NO_SUGGESTIONS;
+
+        Node child(char c) {
+            int index = Arrays.binarySearch(keys, c);
+            return index >= 0 ? children[index] : null;
+        }
+
+        Node addChild(char c) {
+            int index = -Arrays.binarySearch(keys, c) - 1;
+            char[] newKeys = new char[keys.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(keys, 0, newKeys, 0, index);
+            System.arraycopy(children, 0, newChildren, 0, index);
+            newKeys[index] = c;
+            newChildren[index] = new Node();
+            System.arraycopy(keys, index, newKeys, index + 1, keys.length - index);
+            System.arraycopy(children, index, newChildren, index + 1, children.length - index);
+            keys = newKeys;
+            children = newChildren;
+            return newChildren[index];
+        }
+
+        void removeChild(char c) {
+            int index = Arrays.binarySearch(keys, c);
+            if (index < 0) {
+                return;
+            }
+            char[] newKeys = new char[keys.length - 1];
+            Node[] newChildren = new Node[children.length - 1];
+            System.arraycopy(keys, 0, newKeys, 0, index);
+            System.arraycopy(children, 0, newChildren, 0, index);
+            System.arraycopy(keys, index + 1, newKeys, index, keys.length - index - 1);
+            System.arraycopy(children, index + 1, newChildren, index, children.length - index - 1);
+            keys = newKeys;
+            children = newChildren;
+        }
+
+        boolean isEmpty() {
+            return keys.length == 0 && terminals.isEmpty();
+        }
+
+        void recomputeTop() {
+            // Одно название может прийти от нескольких детей (разные слова с общим началом)
+            Map<Suggestion, Boolean> candidates = new IdentityHashMap<>();
+            terminals.forEach(suggestion -> candidates.put(suggestion, Boolean.TRUE));
+            for (Node child : children) {
+                for (Suggestion suggestion : child.top) {
+                    candidates.put(suggestion, Boolean.TRUE);
+                }
+            }
+            top = candidates.keySet().stream()
+                    .sorted(RANK_ORDER)
+                    .limit(MAX_SUGGESTIONS)
+                    .toArray(Suggestion[]::new);
+        }
+    }
+}
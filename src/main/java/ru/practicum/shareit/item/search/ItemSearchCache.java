@@ -0,0 +1,140 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.EqualsAndHashCode;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.event.ItemEvent;
+import ru.practicum.shareit.pagination.SearchCursor;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Кэш страниц поисковой выдачи перед ItemSearchIndex: нормализованный запрос и курсор → найденные вещи с оценками.
+ * Размер ограничен shareit.search.cache-size (вытесняются давно не читанные записи), записи живут не дольше shareit.search.cache-ttl.
+ * После изменения вещи сбрасываются только те записи, под запрос которых подходила её старая или новая версия.
+ * Оценка вещи в индексе зависит только от неё самой, поэтому остальные записи остаются точными вместе с порядком,
+ * а курсор, собранный по странице из кэша, годится для следующей страницы и из кэша, и из индекса.
+ * Ключ включает курсор, так что следующие страницы тоже могут прийти из кэша.
+ */
+@Slf4j
+@Component
+public class ItemSearchCache {
+    private final ItemSearchIndex itemSearchIndex;
+    private final int maxSize;
+    private final long ttlNanos;
+
+    private final Map<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    // Меняется при каждом сбросе: страница, посчитанная до сброса, в кэш уже не попадёт
+    private long generation;
+
+    public ItemSearchCache(ItemSearchIndex itemSearchIndex,
+                           @Value("${shareit.search.cache-size:10000}") int maxSize,
+                           @Value("${shareit.search.cache-ttl:PT10M}") Duration ttl) {
+        this.itemSearchIndex = itemSearchIndex;
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl.toNanos();
+    }
+
+    /**
+     * То же, что ItemSearchIndex.search, но повторные запросы отдаются из кэша.
+     */
+    public Optional<List<ItemSearchHit>> search(String text, SearchMode mode, SearchCursor after, int limit) {
+        List<String> tokens = ItemSearchIndex.tokenize(text).stream()
+                .distinct()
+                .sorted()
+                .collect(Collectors.toList());
+        Key key = new Key(tokens, mode, after.encode(), limit);
+        long seenGeneration;
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null && System.nanoTime() - entry.createdAt < ttlNanos) {
+                return Optional.of(entry.hits);
+            }
+            if (entry != null) {
+                entries.remove(key);
+            }
+            seenGeneration = generation;
+        }
+
+        Optional<List<ItemSearchHit>> hits = itemSearchIndex.search(text, mode, after, limit);
+        if (hits.isPresent()) {
+            synchronized (this) {
+                if (generation == seenGeneration) {
+                    entries.put(key, new Entry(List.copyOf(hits.get()), System.nanoTime()));
+                    evictEldest();
+                }
+            }
+        }
+        return hits;
+    }
+
+    @TransactionalEventListener
+    public void onItemEvent(ItemEvent event) {
+        Set<String> terms = new HashSet<>();
+        addVisibleTerms(event.getBefore(), terms);
+        addVisibleTerms(event.getAfter(), terms);
+        if (terms.isEmpty() || !event.changesSearchFields()) {
+            return;
+        }
+
+        int invalidated = 0;
+        synchronized (this) {
+            generation++;
+            Iterator<Map.Entry<Key, Entry>> iterator = entries.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<Key, Entry> entry = iterator.next();
+                if (itemSearchIndex.couldMatch(entry.getKey().tokens, entry.getKey().mode, terms)) {
+                    iterator.remove();
+                    invalidated++;
+                }
+            }
+        }
+        log.debug("Вещь {} изменилась, сброшено записей кэша поиска: {}", event.getItemId(), invalidated);
+    }
+
+    private void evictEldest() {
+        Iterator<Key> iterator = entries.keySet().iterator();
+        while (entries.size() > maxSize) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    private static void addVisibleTerms(ItemDto item, Set<String> terms) {
+        if (item != null && Boolean.TRUE.equals(item.getAvailable())) {
+            terms.addAll(ItemSearchIndex.tokenize(item.getName()));
+            terms.addAll(ItemSearchIndex.tokenize(item.getDescription()));
+        }
+    }
+
+    @EqualsAndHashCode
+    @RequiredArgsConstructor
+    private static final class Key {
+        private final List<String> tokens;
+        private final SearchMode mode;
+        private final String cursor;
+        private final int limit;
+    }
+
+    private static final class Entry {
+        private final List<ItemSearchHit> hits;
+        private final long createdAt;
+
+        private Entry(List<ItemSearchHit> hits, long createdAt) {
+            this.hits = hits;
+            this.createdAt = createdAt;
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.Value;
+
+@Value
+public class ItemSearchHit {
+    Long itemId;
+    double score;
+}
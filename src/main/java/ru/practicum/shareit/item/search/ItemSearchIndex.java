@@ -0,0 +1,343 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.event.ItemEvent;
+import ru.practicum.shareit.item.event.ItemEventType;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.pagination.SearchCursor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Инвертированный индекс по названию и описанию вещей в памяти приложения.
+ * Слова запроса ищутся как префиксы слов вещи, все слова запроса должны найтись.
+ * Ранжирование: совпадение в названии весит больше, чем в описании, точное слово — больше префикса.
+ * Оценка зависит только от запроса и самой вещи, без частоты слов по всему каталогу: изменение одной вещи
+ * не сдвигает оценки остальных, и курсор выдачи (оценка, id) остаётся верным при любых записях в каталог.
+ * Индекс строится при старте из общего прохода ItemCatalogLoader и обновляется после коммита изменений вещей;
+ * пока он не готов, search возвращает пустой Optional и поиск идёт через БД.
+ * Для нечёткого режима словарь дополнительно проиндексирован по триграммам транслитерированных слов;
+ * сходство слов — доля общих триграмм (как similarity в pg_trgm), порог задаётся shareit.search.fuzzy-threshold.
+ */
+@Slf4j
+@Component
+public class ItemSearchIndex implements CatalogLoadListener {
+    private static final int NAME = 1;
+    private static final int DESCRIPTION = 2;
+    private static final double NAME_WEIGHT = 3.0;
+    private static final double DESCRIPTION_WEIGHT = 1.0;
+    private static final double EXACT_MATCH_BOOST = 2.0;
+    private static final int MIN_MATCH_TOKEN_LENGTH = 3;
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Comparator<ItemSearchHit> RANK_ORDER = Comparator
+            .comparingDouble(ItemSearchHit::getScore).reversed()
+            .thenComparing(ItemSearchHit::getItemId);
+
+    private final double fuzzyThreshold;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final NavigableMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+    private final Map<String, Set<String>> termsByTrigram = new HashMap<>();
+    private final Map<String, Integer> trigramCounts = new HashMap<>();
+    private final Map<Long, Document> documents = new HashMap<>();
+    private final Set<Long> changedWhileLoading = new HashSet<>();
+    private volatile boolean ready;
+
+    public ItemSearchIndex(@Value("${shareit.search.fuzzy-threshold:0.3}") double fuzzyThreshold) {
+        this.fuzzyThreshold = fuzzyThreshold;
+    }
+
+    /**
+     * Страница доступных вещей, подходящих под запрос, начиная сразу после курсора, от наиболее релевантной.
+     * Из всех совпадений в куче держится только limit лучших, полный список не сортируется.
+     * Пустой Optional означает, что индекс ответить не может.
+     */
+    public Optional<List<ItemSearchHit>> search(String text, SearchMode mode, SearchCursor after, int limit) {
+        List<String> tokens = tokenize(text).stream().distinct().collect(Collectors.toList());
+        if (!ready || tokens.isEmpty()) {
+            return Optional.empty();
+        }
+
+        Map<Long, Double> scores;
+        lock.readLock().lock();
+        try {
+            scores = scoreToken(tokens.get(0), mode);
+            for (int i = 1; i < tokens.size() && !scores.isEmpty(); i++) {
+                Map<Long, Double> tokenScores = scoreToken(tokens.get(i), mode);
+                scores.keySet().retainAll(tokenScores.keySet());
+                scores.replaceAll((itemId, score) -> score + tokenScores.get(itemId));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return Optional.of(best(scores, after, limit));
+    }
+
+    /**
+     * До limit доступных вещей, совпавших с текстом хотя бы одним словом, от наиболее релевантной.
+     * Оценки слов складываются, короткие слова (предлоги и союзы) не учитываются.
+     * В отличие от search подходит для свободного текста вроде описания запроса.
+     */
+    public Optional<List<ItemSearchHit>> match(String text, SearchMode mode, int limit) {
+        List<String> tokens = tokenize(text).stream()
+                .filter(token -> token.length() >= MIN_MATCH_TOKEN_LENGTH)
+                .distinct()
+                .collect(Collectors.toList());
+        if (!ready) {
+            return Optional.empty();
+        }
+
+        Map<Long, Double> scores = new HashMap<>();
+        lock.readLock().lock();
+        try {
+            for (String token : tokens) {
+                scoreToken(token, mode).forEach((itemId, score) -> scores.merge(itemId, score, Double::sum));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return Optional.of(best(scores, SearchCursor.first(), limit));
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    // Раньше кэша выдачи: он сбрасывает записи, уже видя обновлённый индекс
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener
+    public void onItemEvent(ItemEvent event) {
+        if (!event.changesSearchFields()) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (!ready) {
+                changedWhileLoading.add(event.getItemId());
+            }
+            remove(event.getItemId());
+            if (event.getType() != ItemEventType.DELETED) {
+                ItemDto item = event.getAfter();
+                add(item.getId(), item.getName(), item.getDescription(), item.getAvailable());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Может ли вещь со словами itemTerms попасть в выдачу по запросу из слов queryTokens:
+     * каждое слово запроса должно совпасть хотя бы с одним словом вещи по правилам режима.
+     */
+    boolean couldMatch(List<String> queryTokens, SearchMode mode, Set<String> itemTerms) {
+        for (String token : queryTokens) {
+            boolean matched = false;
+            for (String term : itemTerms) {
+                if (mode == SearchMode.FUZZY ? similarity(token, term) >= fuzzyThreshold : term.startsWith(token)) {
+                    matched = true;
+                    break;
+                }
+            }
+            if (!matched) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void loadBatch(List<Item> batch) {
+        lock.writeLock().lock();
+        try {
+            for (Item item : batch) {
+                // Изменения, пришедшие во время загрузки, новее прочитанной строки
+                if (!changedWhileLoading.contains(item.getId())) {
+                    add(item.getId(), item.getName(), item.getDescription(), item.getAvailable());
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void loadFinished() {
+        lock.writeLock().lock();
+        try {
+            changedWhileLoading.clear();
+            ready = true;
+            log.info("Поисковый индекс вещей построен: вещей {}, слов {}", documents.size(), postings.size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static List<ItemSearchHit> best(Map<Long, Double> scores, SearchCursor after, int limit) {
+        // Вершина кучи — худший из отобранных результатов
+        PriorityQueue<ItemSearchHit> best = new PriorityQueue<>(limit + 1, RANK_ORDER.reversed());
+        scores.forEach((itemId, score) -> {
+            if (after.precedes(score, itemId)) {
+                best.add(new ItemSearchHit(itemId, score));
+                if (best.size() > limit) {
+                    best.poll();
+                }
+            }
+        });
+        List<ItemSearchHit> page = new ArrayList<>(best);
+        page.sort(RANK_ORDER);
+        return page;
+    }
+
+    private Map<Long, Double> scoreToken(String token, SearchMode mode) {
+        return mode == SearchMode.FUZZY ? scoreSimilarTerms(token) : scorePrefixTerms(token);
+    }
+
+    private Map<Long, Double> scorePrefixTerms(String token) {
+        Map<Long, Double> scores = new HashMap<>();
+        for (Map.Entry<String, Map<Long, Integer>> term
+                : postings.subMap(token, true, token + Character.MAX_VALUE, false).entrySet()) {
+            double boost = term.getKey().equals(token) ? EXACT_MATCH_BOOST : 1.0;
+            term.getValue().forEach((itemId, fields) -> {
+                if (documents.get(itemId).available) {
+                    scores.merge(itemId, boost * fieldWeight(fields), Math::max);
+                }
+            });
+        }
+        return scores;
+    }
+
+    private Map<Long, Double> scoreSimilarTerms(String token) {
+        Set<String> queryTrigrams = trigrams(token);
+        Map<String, Integer> sharedTrigrams = new HashMap<>();
+        for (String trigram : queryTrigrams) {
+            Set<String> terms = termsByTrigram.get(trigram);
+            if (terms != null) {
+                terms.forEach(term -> sharedTrigrams.merge(term, 1, Integer::sum));
+            }
+        }
+
+        Map<Long, Double> scores = new HashMap<>();
+        sharedTrigrams.forEach((term, shared) -> {
+            double similarity = (double) shared / (queryTrigrams.size() + trigramCounts.get(term) - shared);
+            if (similarity >= fuzzyThreshold) {
+                postings.get(term).forEach((itemId, fields) -> {
+                    if (documents.get(itemId).available) {
+                        scores.merge(itemId, similarity * fieldWeight(fields), Math::max);
+                    }
+                });
+            }
+        });
+        return scores;
+    }
+
+    private static double fieldWeight(int fields) {
+        return ((fields & NAME) != 0 ? NAME_WEIGHT : 0) + ((fields & DESCRIPTION) != 0 ? DESCRIPTION_WEIGHT : 0);
+    }
+
+    private void add(Long itemId, String name, String description, Boolean available) {
+        Map<String, Integer> fieldsByTerm = new HashMap<>();
+        tokenize(name).forEach(term -> fieldsByTerm.merge(term, NAME, (a, b) -> a | b));
+        tokenize(description).forEach(term -> fieldsByTerm.merge(term, DESCRIPTION, (a, b) -> a | b));
+
+        fieldsByTerm.forEach((term, fields) -> postings.computeIfAbsent(term, this::newTerm).put(itemId, fields));
+        documents.put(itemId, new Document(fieldsByTerm.keySet(), Boolean.TRUE.equals(available)));
+    }
+
+    private void remove(Long itemId) {
+        Document document = documents.remove(itemId);
+        if (document == null) {
+            return;
+        }
+        for (String term : document.terms) {
+            Map<Long, Integer> items = postings.get(term);
+            items.remove(itemId);
+            if (items.isEmpty()) {
+                postings.remove(term);
+                forgetTerm(term);
+            }
+        }
+    }
+
+    private Map<Long, Integer> newTerm(String term) {
+        Set<String> trigrams = trigrams(term);
+        trigramCounts.put(term, trigrams.size());
+        trigrams.forEach(trigram -> termsByTrigram.computeIfAbsent(trigram, t -> new HashSet<>()).add(term));
+        return new HashMap<>();
+    }
+
+    private void forgetTerm(String term) {
+        trigramCounts.remove(term);
+        for (String trigram : trigrams(term)) {
+            Set<String> terms = termsByTrigram.get(trigram);
+            terms.remove(term);
+            if (terms.isEmpty()) {
+                termsByTrigram.remove(trigram);
+            }
+        }
+    }
+
+    private static double similarity(String word, String other) {
+        Set<String> wordTrigrams = trigrams(word);
+        Set<String> otherTrigrams = trigrams(other);
+        int shared = 0;
+        for (String trigram : wordTrigrams) {
+            if (otherTrigrams.contains(trigram)) {
+                shared++;
+            }
+        }
+        return (double) shared / (wordTrigrams.size() + otherTrigrams.size() - shared);
+    }
+
+    /**
+     * Триграммы слова, дополненного пробелами по краям, после транслитерации в латиницу.
+     */
+    private static Set<String> trigrams(String term) {
+        String padded = "  " + Transliterator.toLatin(term) + " ";
+        Set<String> trigrams = new HashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            trigrams.add(padded.substring(i, i + 3));
+        }
+        return trigrams;
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        return Arrays.stream(TOKEN_SEPARATOR.split(text.toLowerCase(Locale.ROOT)))
+                .filter(token -> !token.isEmpty())
+                .collect(Collectors.toList());
+    }
+
+    private static final class Document {
+        private final Set<String> terms;
+        private final boolean available;
+
+        private Document(Set<String> terms, boolean available) {
+            this.terms = terms;
+            this.available = available;
+        }
+    }
+}
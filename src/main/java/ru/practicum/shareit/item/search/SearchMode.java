@@ -0,0 +1,24 @@
+package ru.practicum.shareit.item.search;
+
+import java.util.Locale;
+
+public enum SearchMode {
+    /**
+     * Слова запроса совпадают с началом слов вещи.
+     */
+    EXACT,
+    /**
+     * Слова запроса сравниваются со словами вещи по триграммам, опечатки и латиница допускаются.
+     */
+    FUZZY;
+
+    /**
+     * Допустимые значения параметра mode без учёта регистра; неизвестный режим — ошибка клиента,
+     * а не молчаливый переход на EXACT.
+     */
+    public static final String PATTERN = "(?i)EXACT|FUZZY";
+
+    public static SearchMode from(String mode) {
+        return valueOf(mode.toUpperCase(Locale.ROOT));
+    }
+}
@@ -0,0 +1,31 @@
+package ru.practicum.shareit.item.search;
+
+/**
+ * Упрощённая транслитерация кириллицы в латиницу для нечёткого сравнения слов:
+ * «дрель» и «drel» дают одинаковые триграммы. Остальные символы не меняются.
+ */
+final class Transliterator {
+    private static final char FIRST = 'а';
+    private static final String[] LATIN = {
+            "a", "b", "v", "g", "d", "e", "zh", "z", "i", "i", "k", "l", "m", "n", "o", "p",
+            "r", "s", "t", "u", "f", "h", "ts", "ch", "sh", "sch", "", "y", "", "e", "yu", "ya"
+    };
+
+    private Transliterator() {
+    }
+
+    static String toLatin(String word) {
+        StringBuilder latin = new StringBuilder(word.length() + 4);
+        for (int i = 0; i < word.length(); i++) {
+            char c = word.charAt(i);
+            if (c >= FIRST && c < FIRST + LATIN.length) {
+                latin.append(LATIN[c - FIRST]);
+            } else if (c == 'ё') {
+                latin.append('e');
+            } else {
+                latin.append(c);
+            }
+        }
+        return latin.toString();
+    }
+}
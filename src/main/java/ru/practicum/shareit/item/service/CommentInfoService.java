@@ -6,7 +6,10 @@ import java.util.Map;
 
 public interface CommentInfoService {
 
-    List<CommentDto> getCommentsByItemId(Long itemId);
+    /**
+     * Последние отзывы вещи, не больше shareit.item.latest-comments, от новых к старым.
+     */
+    List<CommentDto> getLatestCommentsByItemId(Long itemId);
 
-    Map<Long, List<CommentDto>> getCommentsByItemIds(List<Long> itemIds);
-}
\ No newline at end of file
+    Map<Long, List<CommentDto>> getLatestCommentsByItemIds(List<Long> itemIds);
+}
@@ -1,33 +1,48 @@
 package ru.practicum.shareit.item.service;
 
-import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.CommentView;
 import ru.practicum.shareit.item.mapper.CommentMapper;
 import ru.practicum.shareit.item.repository.CommentRepository;
+import ru.practicum.shareit.pagination.KeysetCursor;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
-@RequiredArgsConstructor
 public class CommentInfoServiceImpl implements CommentInfoService {
     private final CommentRepository commentRepository;
+    private final int latestComments;
+
+    public CommentInfoServiceImpl(CommentRepository commentRepository,
+                                  @Value("${shareit.item.latest-comments:10}") int latestComments) {
+        this.commentRepository = commentRepository;
+        this.latestComments = latestComments;
+    }
 
     @Override
-    public List<CommentDto> getCommentsByItemId(Long itemId) {
-        return commentRepository.findByItemId(itemId).stream()
+    public List<CommentDto> getLatestCommentsByItemId(Long itemId) {
+        KeysetCursor first = KeysetCursor.first();
+        return commentRepository.findPageByItemId(
+                        itemId, first.getTimestamp(), first.getId(), PageRequest.of(0, latestComments)).stream()
                 .map(CommentMapper::toDto)
                 .collect(Collectors.toList());
     }
 
     @Override
-    public Map<Long, List<CommentDto>> getCommentsByItemIds(List<Long> itemIds) {
-        return commentRepository.findByItemIdIn(itemIds).stream()
+    public Map<Long, List<CommentDto>> getLatestCommentsByItemIds(List<Long> itemIds) {
+        if (itemIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        return commentRepository.findLatestByItemIds(itemIds, latestComments).stream()
                 .collect(Collectors.groupingBy(
-                        comment -> comment.getItem().getId(),
+                        CommentView::getItemId,
                         Collectors.mapping(CommentMapper::toDto, Collectors.toList())
                 ));
     }
-}
\ No newline at end of file
+}
@@ -1,9 +1,17 @@
 package ru.practicum.shareit.item.service;
 
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.pagination.KeysetCursor;
+
+import java.util.List;
 
 public interface CommentService {
 
     CommentDto addComment(Long itemId, Long userId, CommentDto commentDto);
 
+    /**
+     * Страница отзывов вещи от новых к старым, начиная сразу после курсора.
+     */
+    List<CommentDto> getComments(Long itemId, KeysetCursor cursor, int size);
+
 }
\ No newline at end of file
@@ -1,21 +1,28 @@
 package ru.practicum.shareit.item.service;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.service.BookingInfoService;
 import ru.practicum.shareit.exception.CommentException;
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.event.CommentCountEvent;
 import ru.practicum.shareit.item.mapper.CommentMapper;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.CommentRepository;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.pagination.KeysetCursor;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.service.UserService;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -24,6 +31,9 @@ public class CommentServiceImpl implements CommentService {
     private final UserService userService;
     private final ItemInfoService itemInfoService;
     private final BookingInfoService bookingInfoService;
+    private final ItemRepository itemRepository;
+    private final ItemCache itemCache;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     @Transactional
@@ -32,19 +42,31 @@ public class CommentServiceImpl implements CommentService {
         User author = userService.getById(userId);
         Item item = itemInfoService.getById(itemId);
 
-        Optional<Booking> lastBooking = bookingInfoService.findLastUserBookingForItem(userId, itemId);
-        if (lastBooking.isEmpty() || lastBooking.get().getEnd().isAfter(LocalDateTime.now())) {
-            throw new CommentException("Пользователь не бронировал эту вещь или бронирование еще не завершено");
-        }
-
         validateUserBookedItem(userId, itemId);
 
         Comment comment = buildComment(commentDto, author, item);
         Comment savedComment = commentRepository.save(comment);
+        itemRepository.incrementCommentCount(itemId);
+        itemCache.evict(itemId);
+        // Строка вещи заблокирована до коммита, поэтому прочитанный счётчик уже учитывает этот отзыв
+        eventPublisher.publishEvent(CommentCountEvent.builder()
+                .itemId(itemId)
+                .commentCount(itemRepository.findCommentCount(itemId))
+                .build());
 
         return CommentMapper.toDto(savedComment);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public List<CommentDto> getComments(Long itemId, KeysetCursor cursor, int size) {
+        itemInfoService.getById(itemId);
+        return commentRepository.findPageByItemId(itemId, cursor.getTimestamp(), cursor.getId(), PageRequest.of(0, size))
+                .stream()
+                .map(CommentMapper::toDto)
+                .collect(Collectors.toList());
+    }
+
     private void validateComment(CommentDto commentDto) {
         if (commentDto.getText() == null || commentDto.getText().trim().isEmpty()) {
             throw new CommentException("Текст комментария не может быть пустым");
@@ -52,9 +74,15 @@ public class CommentServiceImpl implements CommentService {
     }
 
     private void validateUserBookedItem(Long userId, Long itemId) {
-        if (!bookingInfoService.hasUserBookedItem(userId, itemId)) {
-            throw new CommentException("Пользователь не бронировал эту вещь");
+        if (bookingInfoService.hasUserBookedItem(userId, itemId)) {
+            return;
+        }
+        // Отказ — редкий путь, только здесь читаем бронирования, чтобы выбрать текст ошибки
+        Optional<Booking> lastBooking = bookingInfoService.findLastUserBookingForItem(userId, itemId);
+        if (lastBooking.isEmpty() || lastBooking.get().getEnd().isAfter(LocalDateTime.now())) {
+            throw new CommentException("Пользователь не бронировал эту вещь или бронирование еще не завершено");
         }
+        throw new CommentException("Пользователь не бронировал эту вещь");
     }
 
     private Comment buildComment(CommentDto commentDto, User author, Item item) {
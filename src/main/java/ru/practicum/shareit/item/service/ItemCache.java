@@ -0,0 +1,76 @@
+package ru.practicum.shareit.item.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.cache.BoundedCache;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+/**
+ * Кэш вещей по ID для горячих путей создания бронирований и комментариев. Хранит неизменяемые снимки
+ * и каждый раз отдаёт новую отсоединённую копию, у владельца в которой заполнен только ID.
+ * Размер ограничен shareit.item.cache-size. Записи сбрасываются при изменении вещи или её счётчика отзывов
+ * внутри транзакции и ещё раз после её коммита. Метрики — с тегом cache=items.
+ */
+@Component
+public class ItemCache {
+    private final BoundedCache<Long, Snapshot> snapshots;
+
+    public ItemCache(MeterRegistry meterRegistry,
+                     @Value("${shareit.item.cache-size:10000}") int maxSize) {
+        this.snapshots = new BoundedCache<>("items", maxSize, meterRegistry);
+    }
+
+    /**
+     * Копия вещи из кэша или null, если её там нет.
+     */
+    public Item get(Long itemId) {
+        Snapshot snapshot = snapshots.get(itemId);
+        return snapshot == null ? null : snapshot.toItem();
+    }
+
+    public long generation() {
+        return snapshots.generation();
+    }
+
+    public void put(Item item, long seenGeneration) {
+        snapshots.put(item.getId(), new Snapshot(item), seenGeneration);
+    }
+
+    public void evict(Long itemId) {
+        snapshots.evict(itemId);
+    }
+
+    private static final class Snapshot {
+        private final Long id;
+        private final String name;
+        private final String description;
+        private final Boolean available;
+        private final Long ownerId;
+        private final Long requestId;
+        private final Long commentCount;
+
+        private Snapshot(Item item) {
+            this.id = item.getId();
+            this.name = item.getName();
+            this.description = item.getDescription();
+            this.available = item.getAvailable();
+            this.ownerId = item.getOwner().getId();
+            this.requestId = item.getRequestId();
+            this.commentCount = item.getCommentCount();
+        }
+
+        private Item toItem() {
+            return Item.builder()
+                    .id(id)
+                    .name(name)
+                    .description(description)
+                    .available(available)
+                    .owner(User.builder().id(ownerId).build())
+                    .requestId(requestId)
+                    .commentCount(commentCount)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package ru.practicum.shareit.item.service;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.cache.ExistenceFilter;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.List;
+
+/**
+ * Фильтр заведомо несуществующих ID вещей.
+ */
+@Component
+public class ItemIdFilter extends ExistenceFilter {
+    private final ItemRepository itemRepository;
+
+    public ItemIdFilter(ItemRepository itemRepository) {
+        super("items");
+        this.itemRepository = itemRepository;
+    }
+
+    @Override
+    protected Long findMaxId() {
+        return itemRepository.findMaxId();
+    }
+
+    @Override
+    protected List<Long> findIdsAfter(Long afterId, Pageable pageable) {
+        return itemRepository.findIdsAfter(afterId, pageable);
+    }
+}
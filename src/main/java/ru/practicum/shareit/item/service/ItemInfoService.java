@@ -2,8 +2,26 @@ package ru.practicum.shareit.item.service;
 
 import ru.practicum.shareit.item.model.Item;
 
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+
 public interface ItemInfoService {
 
+    /**
+     * Вещь для проверок и ссылок из бронирований и комментариев. Может вернуть отсоединённую копию из ItemCache,
+     * поэтому изменять её и читать у владельца что-то кроме ID нельзя.
+     */
     Item getById(Long itemId);
 
+    Map<Long, Item> getByIds(Collection<Long> itemIds);
+
+    /**
+     * Блокирует строки вещей до конца текущей транзакции, в порядке ID. Подтверждения бронирований одной вещи
+     * так выполняются по очереди, и каждое видит уже закоммиченные подтверждения остальных.
+     *
+     * @return ID вещей, которые существуют и заблокированы
+     */
+    Set<Long> lockByIds(Collection<Long> itemIds);
+
 }
\ No newline at end of file
@@ -2,18 +2,69 @@ package ru.practicum.shareit.item.service;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
 @Service
 @RequiredArgsConstructor
 public class ItemInfoServiceImpl implements ItemInfoService {
     private final ItemRepository itemRepository;
+    private final ItemCache itemCache;
+    private final ItemIdFilter itemIdFilter;
 
     @Override
     public Item getById(Long itemId) {
-        return itemRepository.findById(itemId)
+        if (!itemIdFilter.mightExist(itemId)) {
+            throw new NotFoundException("Вещь с ID " + itemId + " не найдена");
+        }
+        Item cached = itemCache.get(itemId);
+        if (cached != null) {
+            return cached;
+        }
+        long generation = itemCache.generation();
+        Item item = itemRepository.findById(itemId)
                 .orElseThrow(() -> new NotFoundException("Вещь с ID " + itemId + " не найдена"));
+        itemCache.put(item, generation);
+        return item;
+    }
+
+    @Override
+    @Transactional
+    public Set<Long> lockByIds(Collection<Long> itemIds) {
+        return itemRepository.lockByIdIn(itemIds).stream()
+                .map(Item::getId)
+                .collect(Collectors.toSet());
+    }
+
+    @Override
+    public Map<Long, Item> getByIds(Collection<Long> itemIds) {
+        Map<Long, Item> items = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        for (Long itemId : itemIds) {
+            Item cached = itemCache.get(itemId);
+            if (cached != null) {
+                items.put(itemId, cached);
+            } else {
+                missing.add(itemId);
+            }
+        }
+        if (!missing.isEmpty()) {
+            long generation = itemCache.generation();
+            for (Item item : itemRepository.findAllById(missing)) {
+                itemCache.put(item, generation);
+                items.put(item.getId(), item);
+            }
+        }
+        return items;
     }
-}
\ No newline at end of file
+}
@@ -1,7 +1,14 @@
 package ru.practicum.shareit.item.service;
 
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemSearchPage;
+import ru.practicum.shareit.item.dto.ItemWithBookingsDto;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.search.SearchMode;
+import ru.practicum.shareit.pagination.SearchCursor;
+
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface ItemService {
@@ -12,9 +19,12 @@ public interface ItemService {
 
     Item getById(Long itemId);
 
-    List<ItemDto> getAllByOwner(Long ownerId);
+    List<ItemWithBookingsDto> getAllByOwner(Long ownerId);
+
+    ItemSearchPage search(String text, LocalDateTime start, LocalDateTime end, SearchMode mode,
+                          SearchCursor cursor, int size);
 
-    List<ItemDto> search(String text);
+    List<String> suggest(String prefix, int limit);
 
     void delete(Long itemId, Long ownerId);
 
@@ -23,4 +33,6 @@ public interface ItemService {
     ItemDto getItemDtoById(Long itemId, Long userId);
 
     List<ItemDto> findAllByRequestIdIn(List<Long> requestIds);
+
+    ItemAvailabilityDto getAvailability(Long itemId, LocalDateTime from, LocalDateTime to);
     }
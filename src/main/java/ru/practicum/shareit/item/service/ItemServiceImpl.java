@@ -1,32 +1,68 @@
 package ru.practicum.shareit.item.service;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.service.BookingInfoService;
+import ru.practicum.shareit.exception.BookingException;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.exception.PaginationException;
 import ru.practicum.shareit.exception.ValidationException;
-import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemSearchPage;
+import ru.practicum.shareit.item.dto.ItemWithBookingsDto;
+import ru.practicum.shareit.item.event.ItemEvent;
+import ru.practicum.shareit.item.event.ItemEventType;
 import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemNameSuggester;
+import ru.practicum.shareit.item.search.ItemSearchCache;
+import ru.practicum.shareit.item.search.ItemSearchHit;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+import ru.practicum.shareit.item.search.SearchMode;
+import ru.practicum.shareit.pagination.SearchCursor;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.service.UserService;
 
+import java.time.LocalDateTime;
+import java.time.Period;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 @Transactional(readOnly = true)
 public class ItemServiceImpl implements ItemService {
+    private static final Period DEFAULT_AVAILABILITY_PERIOD = Period.ofMonths(1);
+    // Ранги поиска через БД, см. ItemRepository.NAME_RANK
+    private static final double NAME_MATCH_RANK = 2.0;
+    private static final double DESCRIPTION_MATCH_RANK = 1.0;
+    // Добор страницы поиска идёт пачками по SEARCH_REFILL_FACTOR страниц, не больше MAX_SEARCH_REFILL_ROUNDS раз
+    private static final int SEARCH_REFILL_FACTOR = 4;
+    private static final int MAX_SEARCH_REFILL_ROUNDS = 3;
+    private static final String SEARCH_RESTARTED_MESSAGE = "Поиск перезапускается, начните поиск с первой страницы";
+
     private final ItemRepository itemRepository;
+    private final ItemInfoService itemInfoService;
+    private final ItemCache itemCache;
+    private final ItemIdFilter itemIdFilter;
     private final UserService userService;
     private final BookingInfoService bookingInfoService;
     private final CommentInfoService commentInfoService;
+    private final ItemSearchIndex itemSearchIndex;
+    private final ItemSearchCache itemSearchCache;
+    private final ItemNameSuggester itemNameSuggester;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     @Transactional
@@ -34,7 +70,14 @@ public class ItemServiceImpl implements ItemService {
         validateItem(item);
         User owner = userService.getById(ownerId);
         item.setOwner(owner);
-        return itemRepository.save(item);
+        Item savedItem = itemRepository.save(item);
+        itemIdFilter.created(savedItem.getId());
+        eventPublisher.publishEvent(ItemEvent.builder()
+                .type(ItemEventType.CREATED)
+                .itemId(savedItem.getId())
+                .after(ItemMapper.toDto(savedItem))
+                .build());
+        return savedItem;
     }
 
     @Override
@@ -46,64 +89,155 @@ public class ItemServiceImpl implements ItemService {
             throw new NotFoundException("Редактировать вещь может только владелец");
         }
 
+        ItemDto before = ItemMapper.toDto(existingItem);
         updateItemFields(existingItem, item);
-        return itemRepository.save(existingItem);
+        Item savedItem = itemRepository.save(existingItem);
+        itemCache.evict(savedItem.getId());
+        eventPublisher.publishEvent(ItemEvent.builder()
+                .type(ItemEventType.UPDATED)
+                .itemId(savedItem.getId())
+                .before(before)
+                .after(ItemMapper.toDto(savedItem))
+                .build());
+        return savedItem;
     }
 
     @Override
     public Item getById(Long itemId) {
+        if (!itemIdFilter.mightExist(itemId)) {
+            throw new NotFoundException("Вещь с ID " + itemId + " не найдена");
+        }
         return itemRepository.findById(itemId)
                 .orElseThrow(() -> new NotFoundException("Вещь с ID " + itemId + " не найдена"));
     }
 
     @Override
     public ItemDto getItemDtoById(Long itemId, Long userId) {
-        Item item = getById(itemId);
+        Item item = itemInfoService.getById(itemId);
         ItemDto itemDto = ItemMapper.toDto(item);
 
         if (userId != null && item.getOwner().getId().equals(userId)) {
             setBookingInfo(itemDto, itemId);
         }
 
-        itemDto.setComments(commentInfoService.getCommentsByItemId(itemId));
+        itemDto.setComments(commentInfoService.getLatestCommentsByItemId(itemId));
         return itemDto;
     }
 
     @Override
-    public List<ItemDto> getAllByOwner(Long ownerId) {
+    public List<ItemWithBookingsDto> getAllByOwner(Long ownerId) {
         List<Item> items = itemRepository.findByOwnerId(ownerId);
-        Map<Long, List<CommentDto>> comments = commentInfoService.getCommentsByItemIds(
-                items.stream().map(Item::getId).collect(Collectors.toList())
-        );
-
-        return items.stream()
-                .map(item -> {
-                    ItemDto dto = ItemMapper.toDto(item);
-                    setBookingInfo(dto, item.getId());
-                    dto.setComments(comments.getOrDefault(item.getId(), Collections.emptyList()));
-                    return dto;
-                })
+        if (items.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<Long> itemIds = items.stream()
+                .map(Item::getId)
                 .collect(Collectors.toList());
+
+        return ItemMapper.toItemWithBookingsDtoList(
+                items,
+                bookingInfoService.getLastBookings(itemIds),
+                bookingInfoService.getNextBookings(itemIds),
+                commentInfoService.getLatestCommentsByItemIds(itemIds));
     }
 
     @Override
-    public List<ItemDto> search(String text) {
+    public ItemSearchPage search(String text, LocalDateTime start, LocalDateTime end, SearchMode mode,
+                                 SearchCursor cursor, int size) {
         if (text == null || text.isBlank()) {
-            return Collections.emptyList();
+            return toSearchPage(Collections.emptyList(), size, null);
         }
-        return itemRepository.findAvailableItemsByText(text.toLowerCase()).stream()
-                .map(ItemMapper::toDto)
-                .collect(Collectors.toList());
+        boolean freePeriod = start != null || end != null;
+        if (freePeriod && (start == null || end == null || !end.isAfter(start))) {
+            throw new BookingException("Для поиска свободных вещей нужен период, где конец после начала");
+        }
+
+        if (cursor.isDatabaseRanked()) {
+            // Выдача началась в БД, пока индекс строился: ранги индекса с её курсором несравнимы
+            return searchInDatabase(text.toLowerCase(), freePeriod, start, end, cursor, size);
+        }
+        // Свободность в окне дат зависит от бронирований, поэтому в кэш идут только запросы без окна
+        Optional<List<ItemSearchHit>> hits = freePeriod
+                ? itemSearchIndex.search(text, mode, cursor, size)
+                : itemSearchCache.search(text, mode, cursor, size);
+        if (hits.isEmpty()) {
+            if (!cursor.isFirst()) {
+                // Индекс ещё строится после перезапуска, а ранги БД с курсором индекса несравнимы
+                throw new PaginationException(SEARCH_RESTARTED_MESSAGE);
+            }
+            // Индекс ещё строится или в запросе нет слов — ищем по подстроке в БД
+            return searchInDatabase(text.toLowerCase(), freePeriod, start, end, cursor, size);
+        }
+
+        List<ItemDto> items = new ArrayList<>(size);
+        SearchCursor last = null;
+        List<ItemSearchHit> candidates = hits.get();
+        int requested = size;
+        for (int round = 0; ; round++) {
+            List<Long> ids = candidates.stream()
+                    .map(ItemSearchHit::getItemId)
+                    .collect(Collectors.toList());
+            Map<Long, Item> found = (freePeriod
+                    ? itemRepository.findAvailableByIdInFreeBetween(ids, BookingStatus.APPROVED, start, end)
+                    : itemRepository.findAllById(ids)).stream()
+                    .filter(Item::getAvailable)
+                    .collect(Collectors.toMap(Item::getId, Function.identity()));
+            for (ItemSearchHit hit : candidates) {
+                if (items.size() == size) {
+                    break;
+                }
+                Item item = found.get(hit.getItemId());
+                if (item != null) {
+                    items.add(ItemMapper.toDto(item));
+                    last = SearchCursor.after(hit.getScore(), hit.getItemId());
+                }
+            }
+
+            if (items.size() == size || candidates.size() < requested) {
+                break;
+            }
+            ItemSearchHit lastCandidate = candidates.get(candidates.size() - 1);
+            SearchCursor scanned = SearchCursor.after(lastCandidate.getScore(), lastCandidate.getItemId());
+            if (round == MAX_SEARCH_REFILL_ROUNDS) {
+                // Почти все совпадения заняты в периоде: антиджойн в БД дешевле дальнейшего перебора кандидатов
+                if (cursor.isFirst()) {
+                    return searchInDatabase(text.toLowerCase(), freePeriod, start, end, cursor, size);
+                }
+                // Ранги БД с курсором индекса несравнимы: отдаём неполную страницу и продолжаем с просмотренного
+                return ItemSearchPage.builder()
+                        .items(items)
+                        .nextCursor(scanned)
+                        .build();
+            }
+            // Часть кандидатов занята в выбранный период — добираем страницу следующими по релевантности
+            requested = size * SEARCH_REFILL_FACTOR;
+            candidates = itemSearchIndex.search(text, mode, scanned, requested).orElse(Collections.emptyList());
+        }
+        return toSearchPage(items, size, last);
+    }
+
+    @Override
+    public List<String> suggest(String prefix, int limit) {
+        return itemNameSuggester.suggest(prefix, limit).orElseGet(() -> prefix == null || prefix.isBlank()
+                ? Collections.emptyList()
+                : itemRepository.findAvailableNamesByPrefix(prefix.trim().toLowerCase(), PageRequest.of(0, limit)));
     }
 
     @Override
     @Transactional
     public void delete(Long itemId, Long ownerId) {
-        Item item = getById(itemId);
+        Item item = itemInfoService.getById(itemId);
         if (!item.getOwner().getId().equals(ownerId)) {
             throw new NotFoundException("Удалять вещь может только владелец");
         }
         itemRepository.deleteById(itemId);
+        itemCache.evict(itemId);
+        itemIdFilter.deleted(itemId);
+        eventPublisher.publishEvent(ItemEvent.builder()
+                .type(ItemEventType.DELETED)
+                .itemId(itemId)
+                .before(ItemMapper.toDto(item))
+                .build());
     }
 
     @Override
@@ -123,6 +257,48 @@ public class ItemServiceImpl implements ItemService {
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public ItemAvailabilityDto getAvailability(Long itemId, LocalDateTime from, LocalDateTime to) {
+        itemInfoService.getById(itemId);
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime periodStart = from == null || from.isBefore(now) ? now : from;
+        LocalDateTime periodEnd = to != null ? to : periodStart.plus(DEFAULT_AVAILABILITY_PERIOD);
+        if (!periodEnd.isAfter(periodStart)) {
+            throw new BookingException("Конец периода должен быть после начала");
+        }
+
+        return ItemAvailabilityDto.builder()
+                .itemId(itemId)
+                .from(periodStart)
+                .to(periodEnd)
+                .busy(bookingInfoService.getBusyIntervals(itemId, periodStart, periodEnd))
+                .build();
+    }
+
+    private ItemSearchPage searchInDatabase(String text, boolean freePeriod, LocalDateTime start, LocalDateTime end,
+                                            SearchCursor cursor, int size) {
+        PageRequest page = PageRequest.of(0, size);
+        List<Item> items = freePeriod
+                ? itemRepository.findAvailableItemsByTextFreeBetween(
+                        text, BookingStatus.APPROVED, start, end, cursor.getScore(), cursor.getId(), page)
+                : itemRepository.findAvailableItemsByText(text, cursor.getScore(), cursor.getId(), page);
+
+        SearchCursor last = null;
+        if (!items.isEmpty()) {
+            Item lastItem = items.get(items.size() - 1);
+            double rank = lastItem.getName().toLowerCase().contains(text) ? NAME_MATCH_RANK : DESCRIPTION_MATCH_RANK;
+            last = SearchCursor.afterInDatabase(rank, lastItem.getId());
+        }
+        return toSearchPage(ItemMapper.toDtoList(items), size, last);
+    }
+
+    private ItemSearchPage toSearchPage(List<ItemDto> items, int size, SearchCursor last) {
+        return ItemSearchPage.builder()
+                .items(items)
+                .nextCursor(items.size() == size ? last : null)
+                .build();
+    }
+
     private void updateItemFields(Item existingItem, Item newItem) {
         if (newItem.getName() != null) {
             existingItem.setName(newItem.getName());
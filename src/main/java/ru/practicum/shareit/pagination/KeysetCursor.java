@@ -0,0 +1,55 @@
+package ru.practicum.shareit.pagination;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import ru.practicum.shareit.exception.PaginationException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Непрозрачный курсор для keyset-пагинации по паре (timestamp, id) в порядке убывания.
+ */
+@Getter
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+public class KeysetCursor {
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private static final LocalDateTime MAX_TIMESTAMP = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+    private static final KeysetCursor FIRST = new KeysetCursor(MAX_TIMESTAMP, Long.MAX_VALUE);
+    private static final String SEPARATOR = "|";
+
+    private final LocalDateTime timestamp;
+    private final Long id;
+
+    public static KeysetCursor first() {
+        return FIRST;
+    }
+
+    public static KeysetCursor after(LocalDateTime timestamp, Long id) {
+        return new KeysetCursor(timestamp, id);
+    }
+
+    public static KeysetCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return FIRST;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf(SEPARATOR);
+            return new KeysetCursor(
+                    LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException | IndexOutOfBoundsException e) {
+            throw new PaginationException("Некорректный курсор пагинации");
+        }
+    }
+
+    public String encode() {
+        String raw = timestamp + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
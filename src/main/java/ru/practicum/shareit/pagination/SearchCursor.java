@@ -0,0 +1,83 @@
+package ru.practicum.shareit.pagination;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import ru.practicum.shareit.exception.PaginationException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Непрозрачный курсор для постраничной выдачи поиска: результаты идут по убыванию релевантности,
+ * при равной релевантности — по возрастанию id.
+ * Релевантность и в индексе, и в БД зависит только от запроса и самой вещи, поэтому курсор не устаревает
+ * от изменений других вещей. Ранги индекса и БД разные, и курсор помнит, чья выдача его выдала.
+ */
+@Getter
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+public class SearchCursor {
+    private static final String INDEX_SOURCE = "i";
+    private static final String DATABASE_SOURCE = "d";
+    private static final SearchCursor FIRST = new SearchCursor(false, Double.MAX_VALUE, 0L);
+    private static final String SEPARATOR = "|";
+
+    private final boolean databaseRanked;
+    private final double score;
+    private final long id;
+
+    public static SearchCursor first() {
+        return FIRST;
+    }
+
+    public static SearchCursor after(double score, long id) {
+        return new SearchCursor(false, score, id);
+    }
+
+    public static SearchCursor afterInDatabase(double score, long id) {
+        return new SearchCursor(true, score, id);
+    }
+
+    public static SearchCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return FIRST;
+        }
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8)
+                    .split("\\" + SEPARATOR);
+            if (parts.length != 3 || !(INDEX_SOURCE.equals(parts[0]) || DATABASE_SOURCE.equals(parts[0]))) {
+                throw new PaginationException("Некорректный курсор пагинации");
+            }
+            double score = Double.parseDouble(parts[1]);
+            if (!Double.isFinite(score)) {
+                throw new PaginationException("Некорректный курсор пагинации");
+            }
+            return new SearchCursor(DATABASE_SOURCE.equals(parts[0]), score, Long.parseLong(parts[2]));
+        } catch (IllegalArgumentException e) {
+            throw new PaginationException("Некорректный курсор пагинации");
+        }
+    }
+
+    public boolean isFirst() {
+        return score == Double.MAX_VALUE && id == 0;
+    }
+
+    /**
+     * Курсор выдан поиском через БД, и следующие страницы тоже нужно брать из БД.
+     */
+    public boolean isDatabaseRanked() {
+        return !isFirst() && databaseRanked;
+    }
+
+    /**
+     * Идёт ли результат с указанной релевантностью и id после курсора.
+     */
+    public boolean precedes(double otherScore, long otherId) {
+        return otherScore < score || (otherScore == score && otherId > id);
+    }
+
+    public String encode() {
+        String raw = (databaseRanked ? DATABASE_SOURCE : INDEX_SOURCE) + SEPARATOR + score + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -1,9 +1,16 @@
 package ru.practicum.shareit.request.controller;
 
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.exception.PaginationException;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.pagination.KeysetCursor;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestWithItemsDto;
 import ru.practicum.shareit.request.mapper.ItemRequestMapper;
@@ -18,6 +25,7 @@ import java.util.stream.Collectors;
 @RestController
 @RequestMapping(path = "/requests")
 @RequiredArgsConstructor
+@Validated
 public class ItemRequestController {
     private final ItemRequestService requestService;
     private final ItemService itemService;
@@ -61,11 +69,32 @@ public class ItemRequestController {
     }
 
     @GetMapping("/all")
-    public List<ItemRequestWithItemsDto> getAllExceptRequester(
+    public ResponseEntity<List<ItemRequestWithItemsDto>> getAllExceptRequester(
             @RequestHeader("X-Sharer-User-Id") Long requesterId,
-            @RequestParam(defaultValue = "0") int from,
-            @RequestParam(defaultValue = "10") int size) {
-        return requestService.getAllExceptRequesterWithItems(requesterId, from, size);
+            @RequestParam(required = false) String cursor,
+            // Устаревшее смещение для клиентов, ещё не перешедших на курсор
+            @RequestParam(required = false) @PositiveOrZero Integer from,
+            @RequestParam(defaultValue = "10") @Positive @Max(100) int size) {
+        if (from != null && cursor != null) {
+            throw new PaginationException("Передайте либо cursor, либо устаревший параметр from");
+        }
+        List<ItemRequestWithItemsDto> requests = from != null
+                ? requestService.getAllExceptRequesterWithItems(requesterId, from, size)
+                : requestService.getAllExceptRequesterWithItems(requesterId, KeysetCursor.decode(cursor), size);
+        if (requests.size() < size) {
+            return ResponseEntity.ok(requests);
+        }
+        ItemRequestWithItemsDto last = requests.get(requests.size() - 1);
+        return ResponseEntity.ok()
+                .header(KeysetCursor.NEXT_CURSOR_HEADER, KeysetCursor.after(last.getCreated(), last.getId()).encode())
+                .body(requests);
+    }
+
+    @GetMapping("/{requestId}/suggestions")
+    public List<ItemDto> getSuggestions(
+            @PathVariable Long requestId,
+            @RequestHeader("X-Sharer-User-Id") Long userId) {
+        return requestService.getSuggestions(requestId, userId);
     }
 
     @DeleteMapping("/{requestId}")
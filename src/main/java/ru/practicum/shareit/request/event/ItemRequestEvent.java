@@ -0,0 +1,19 @@
+package ru.practicum.shareit.request.event;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+/**
+ * Создание или удаление запроса вещи.
+ */
+@Value
+@Builder
+public class ItemRequestEvent {
+    ItemRequestEventType type;
+    Long requestId;
+    Long requesterId;
+    String description;
+    LocalDateTime created;
+}
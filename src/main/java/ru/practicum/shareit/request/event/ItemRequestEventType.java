@@ -0,0 +1,6 @@
+package ru.practicum.shareit.request.event;
+
+public enum ItemRequestEventType {
+    CREATED,
+    DELETED
+}
@@ -8,7 +8,9 @@ import java.time.LocalDateTime;
 import java.util.Objects;
 
 @Entity
-@Table(name = "requests")
+@Table(name = "requests", indexes = {
+        @Index(name = "ix_requests_created", columnList = "created, id")
+})
 @Getter
 @Setter
 @NoArgsConstructor
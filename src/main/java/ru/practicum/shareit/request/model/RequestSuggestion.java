@@ -0,0 +1,50 @@
+package ru.practicum.shareit.request.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+@Entity
+@Table(name = "request_suggestions", uniqueConstraints = {
+        @UniqueConstraint(name = "uq_request_suggestions_request_item", columnNames = {"request_id", "item_id"})
+}, indexes = {
+        @Index(name = "ix_request_suggestions_item", columnList = "item_id")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@ToString
+public class RequestSuggestion {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "request_id", nullable = false)
+    private Long requestId;
+
+    @Column(name = "item_id", nullable = false)
+    private Long itemId;
+
+    @Column(name = "score", nullable = false)
+    private Double score;
+
+    @Column(name = "created", nullable = false)
+    private LocalDateTime created;
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        RequestSuggestion that = (RequestSuggestion) o;
+        return Objects.equals(id, that.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id);
+    }
+}
@@ -1,14 +1,46 @@
 package ru.practicum.shareit.request.repository;
 
+import jakarta.persistence.LockModeType;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import ru.practicum.shareit.request.model.ItemRequest;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long> {
 
     List<ItemRequest> findByRequesterIdOrderByCreatedDesc(Long requesterId);
 
-    List<ItemRequest> findByRequesterIdNotOrderByCreatedDesc(Long requesterId, Pageable pageable);
-}
\ No newline at end of file
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    @Query("SELECT r FROM ItemRequest r WHERE r.id IN :ids ORDER BY r.id")
+    List<ItemRequest> lockByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT r FROM ItemRequest r " +
+            "WHERE (r.created < :cursorCreated OR (r.created = :cursorCreated AND r.id < :cursorId)) " +
+            "ORDER BY r.created DESC, r.id DESC")
+    List<ItemRequest> findPage(
+            @Param("cursorCreated") LocalDateTime cursorCreated,
+            @Param("cursorId") Long cursorId,
+            Pageable pageable);
+
+    @Query("SELECT r FROM ItemRequest r " +
+            "WHERE r.requester.id <> :requesterId " +
+            "AND (r.created < :cursorCreated OR (r.created = :cursorCreated AND r.id < :cursorId)) " +
+            "ORDER BY r.created DESC, r.id DESC")
+    List<ItemRequest> findPageExceptRequester(
+            @Param("requesterId") Long requesterId,
+            @Param("cursorCreated") LocalDateTime cursorCreated,
+            @Param("cursorId") Long cursorId,
+            Pageable pageable);
+
+    @Query("SELECT MAX(r.id) FROM ItemRequest r")
+    Long findMaxId();
+
+    @Query("SELECT r.id FROM ItemRequest r WHERE r.id > :afterId ORDER BY r.id")
+    List<Long> findIdsAfter(@Param("afterId") Long afterId, Pageable pageable);
+}
@@ -0,0 +1,22 @@
+package ru.practicum.shareit.request.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import ru.practicum.shareit.request.model.RequestSuggestion;
+
+import java.util.List;
+
+public interface RequestSuggestionRepository extends JpaRepository<RequestSuggestion, Long> {
+
+    List<RequestSuggestion> findByRequestIdOrderByScoreDescItemIdAsc(Long requestId);
+
+    @Modifying
+    @Query("DELETE FROM RequestSuggestion s WHERE s.requestId = :requestId")
+    int deleteByRequestId(@Param("requestId") Long requestId);
+
+    @Modifying
+    @Query("DELETE FROM RequestSuggestion s WHERE s.itemId = :itemId")
+    int deleteByItemId(@Param("itemId") Long itemId);
+}
@@ -0,0 +1,31 @@
+package ru.practicum.shareit.request.service;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.cache.ExistenceFilter;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+
+import java.util.List;
+
+/**
+ * Фильтр заведомо несуществующих ID запросов вещей.
+ */
+@Component
+public class ItemRequestIdFilter extends ExistenceFilter {
+    private final ItemRequestRepository requestRepository;
+
+    public ItemRequestIdFilter(ItemRequestRepository requestRepository) {
+        super("requests");
+        this.requestRepository = requestRepository;
+    }
+
+    @Override
+    protected Long findMaxId() {
+        return requestRepository.findMaxId();
+    }
+
+    @Override
+    protected List<Long> findIdsAfter(Long afterId, Pageable pageable) {
+        return requestRepository.findIdsAfter(afterId, pageable);
+    }
+}
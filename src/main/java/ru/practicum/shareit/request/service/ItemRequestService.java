@@ -1,6 +1,8 @@
 package ru.practicum.shareit.request.service;
 
 import ru.practicum.shareit.request.dto.ItemRequestWithItemsDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.pagination.KeysetCursor;
 import ru.practicum.shareit.request.model.ItemRequest;
 import java.util.List;
 
@@ -14,9 +16,23 @@ public interface ItemRequestService {
 
     List<ItemRequestWithItemsDto> getAllByRequesterWithItems(Long requesterId);
 
+    List<ItemRequestWithItemsDto> getAllExceptRequesterWithItems(Long requesterId, KeysetCursor cursor, int size);
+
+    /**
+     * Страница ленты по смещению from для клиентов, ещё не перешедших на курсор.
+     *
+     * @deprecated глубокие страницы читаются с пропуском строк; используйте курсор
+     */
+    @Deprecated
     List<ItemRequestWithItemsDto> getAllExceptRequesterWithItems(Long requesterId, int from, int size);
 
-    List<ItemRequest> getAllExceptRequester(Long requesterId, int from, int size);
+    List<ItemRequest> getAllExceptRequester(Long requesterId, KeysetCursor cursor, int size);
 
     void delete(Long requestId, Long userId);
+
+    /**
+     * Вещи, подобранные под запрос, от наиболее подходящей. Подбор идёт в фоне, поэтому сразу после
+     * создания запроса список может быть пустым.
+     */
+    List<ItemDto> getSuggestions(Long requestId, Long userId);
 }
\ No newline at end of file
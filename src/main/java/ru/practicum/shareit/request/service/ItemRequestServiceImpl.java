@@ -1,23 +1,34 @@
 package ru.practicum.shareit.request.service;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.ValidationException;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.mapper.ItemMapper;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.service.ItemInfoService;
 import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.pagination.KeysetCursor;
 import ru.practicum.shareit.request.dto.ItemRequestWithItemsDto;
+import ru.practicum.shareit.request.event.ItemRequestEvent;
+import ru.practicum.shareit.request.event.ItemRequestEventType;
 import ru.practicum.shareit.request.mapper.ItemRequestMapper;
 import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.model.RequestSuggestion;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.request.repository.RequestSuggestionRepository;
 import ru.practicum.shareit.user.service.UserService;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 @Service
@@ -27,14 +38,29 @@ public class ItemRequestServiceImpl implements ItemRequestService {
     private final ItemRequestRepository requestRepository;
     private final UserService userService;
     private final ItemService itemService;
+    private final ItemInfoService itemInfoService;
+    private final RequestSuggestionRepository suggestionRepository;
+    private final ItemRequestIdFilter requestIdFilter;
+    private final RequestFeedSegment requestFeedSegment;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     @Transactional
     public ItemRequest create(ItemRequest request, Long requesterId) {
         validateRequest(request);
         request.setRequester(userService.getById(requesterId));
-        request.setCreated(LocalDateTime.now());
-        return requestRepository.save(request);
+        // Точность TIMESTAMP в БД: иначе у ленты из сегмента и из БД разойдутся курсоры
+        request.setCreated(LocalDateTime.now().truncatedTo(ChronoUnit.MICROS));
+        ItemRequest savedRequest = requestRepository.save(request);
+        requestIdFilter.created(savedRequest.getId());
+        eventPublisher.publishEvent(ItemRequestEvent.builder()
+                .type(ItemRequestEventType.CREATED)
+                .requestId(savedRequest.getId())
+                .requesterId(requesterId)
+                .description(savedRequest.getDescription())
+                .created(savedRequest.getCreated())
+                .build());
+        return savedRequest;
     }
 
     @Override
@@ -44,28 +70,19 @@ public class ItemRequestServiceImpl implements ItemRequestService {
     }
 
     @Override
-    public List<ItemRequestWithItemsDto> getAllExceptRequesterWithItems(Long requesterId, int from, int size) {
-        PageRequest page = PageRequest.of(from / size, size);
-        List<ItemRequest> requests = requestRepository.findByRequesterIdNotOrderByCreatedDesc(requesterId, page);
-
-        if (requests.isEmpty()) {
-            return Collections.emptyList();
-        }
-
-        List<Long> requestIds = requests.stream()
-                .map(ItemRequest::getId)
-                .collect(Collectors.toList());
-
-        Map<Long, List<ItemDto>> itemsByRequestId = itemService.findAllByRequestIdIn(requestIds)
-                .stream()
-                .collect(Collectors.groupingBy(ItemDto::getRequestId));
+    public List<ItemRequestWithItemsDto> getAllExceptRequesterWithItems(Long requesterId, KeysetCursor cursor,
+                                                                        int size) {
+        return requestFeedSegment.page(requesterId, cursor, size)
+                .orElseGet(() -> getItemRequestWithItemsDtos(requestRepository.findPageExceptRequester(
+                        requesterId, cursor.getTimestamp(), cursor.getId(), PageRequest.of(0, size))));
+    }
 
-        return requests.stream()
-                .map(request -> ItemRequestMapper.toWithItemsDto(
-                        request,
-                        itemsByRequestId.getOrDefault(request.getId(), Collections.emptyList())
-                ))
-                .collect(Collectors.toList());
+    @Override
+    @Deprecated
+    public List<ItemRequestWithItemsDto> getAllExceptRequesterWithItems(Long requesterId, int from, int size) {
+        KeysetCursor first = KeysetCursor.first();
+        return getItemRequestWithItemsDtos(requestRepository.findPageExceptRequester(
+                requesterId, first.getTimestamp(), first.getId(), PageRequest.of(from / size, size)));
     }
 
     private List<ItemRequestWithItemsDto> getItemRequestWithItemsDtos(List<ItemRequest> requests) {
@@ -93,6 +110,9 @@ public class ItemRequestServiceImpl implements ItemRequestService {
     @Override
     public ItemRequest getById(Long requestId, Long userId) {
         userService.getById(userId);
+        if (!requestIdFilter.mightExist(requestId)) {
+            throw new NotFoundException("Запрос с ID " + requestId + " не найден");
+        }
         return requestRepository.findById(requestId)
                 .orElseThrow(() -> new NotFoundException("Запрос с ID " + requestId + " не найден"));
     }
@@ -104,13 +124,13 @@ public class ItemRequestServiceImpl implements ItemRequestService {
     }
 
     @Override
-    public List<ItemRequest> getAllExceptRequester(Long requesterId, int from, int size) {
-        if (from < 0 || size <= 0) {
+    public List<ItemRequest> getAllExceptRequester(Long requesterId, KeysetCursor cursor, int size) {
+        if (size <= 0) {
             throw new ValidationException("Некорректные параметры пагинации");
         }
         userService.getById(requesterId);
-        PageRequest page = PageRequest.of(from / size, size);
-        return requestRepository.findByRequesterIdNotOrderByCreatedDesc(requesterId, page);
+        return requestRepository.findPageExceptRequester(
+                requesterId, cursor.getTimestamp(), cursor.getId(), PageRequest.of(0, size));
     }
 
     @Override
@@ -121,6 +141,26 @@ public class ItemRequestServiceImpl implements ItemRequestService {
             throw new NotFoundException("Удалять запрос может только его создатель");
         }
         requestRepository.deleteById(requestId);
+        requestIdFilter.deleted(requestId);
+        eventPublisher.publishEvent(ItemRequestEvent.builder()
+                .type(ItemRequestEventType.DELETED)
+                .requestId(requestId)
+                .requesterId(userId)
+                .build());
+    }
+
+    @Override
+    public List<ItemDto> getSuggestions(Long requestId, Long userId) {
+        getById(requestId, userId);
+        List<RequestSuggestion> suggestions = suggestionRepository.findByRequestIdOrderByScoreDescItemIdAsc(requestId);
+        Map<Long, Item> items = itemInfoService.getByIds(suggestions.stream()
+                .map(RequestSuggestion::getItemId)
+                .collect(Collectors.toList()));
+        return suggestions.stream()
+                .map(suggestion -> items.get(suggestion.getItemId()))
+                .filter(Objects::nonNull)
+                .map(ItemMapper::toDto)
+                .collect(Collectors.toList());
     }
 
     private void validateRequest(ItemRequest request) {
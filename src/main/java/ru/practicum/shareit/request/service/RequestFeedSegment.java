@@ -0,0 +1,287 @@
+package ru.practicum.shareit.request.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.event.CommentCountEvent;
+import ru.practicum.shareit.item.event.ItemEvent;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.pagination.KeysetCursor;
+import ru.practicum.shareit.request.dto.ItemRequestWithItemsDto;
+import ru.practicum.shareit.request.event.ItemRequestEvent;
+import ru.practicum.shareit.request.event.ItemRequestEventType;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Общий для всех пользователей сегмент ленты /requests/all: последние shareit.request.feed-segment-size запросов
+ * вместе с откликнувшимися вещами, от новых к старым. Страница пользователя получается фильтрацией сегмента
+ * без его собственных запросов; если страница выходит за хвост сегмента, а в БД есть запросы старше,
+ * она читается из БД. Сегмент обновляется событиями запросов и вещей после коммита и строится в фоне при старте.
+ */
+@Slf4j
+@Component
+public class RequestFeedSegment {
+    private static final int MAX_LOAD_ATTEMPTS = 3;
+    private static final Comparator<Entry> NEWEST_FIRST = Comparator.comparing((Entry entry) -> entry.created)
+            .thenComparing(entry -> entry.id)
+            .reversed();
+
+    private final ItemRequestRepository requestRepository;
+    private final ItemService itemService;
+    private final int maxSize;
+
+    // Неизменяемый снимок: читатели берут его без блокировок, писатели подменяют целиком
+    private volatile State state;
+    private long generation;
+
+    public RequestFeedSegment(ItemRequestRepository requestRepository,
+                              ItemService itemService,
+                              @Value("${shareit.request.feed-segment-size:1000}") int maxSize) {
+        this.requestRepository = requestRepository;
+        this.itemService = itemService;
+        this.maxSize = maxSize;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        Thread loader = new Thread(this::load, "request-feed-segment");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    /**
+     * Страница ленты для пользователя или пусто, если сегмент ещё не построен или не покрывает страницу.
+     */
+    public Optional<List<ItemRequestWithItemsDto>> page(Long requesterId, KeysetCursor cursor, int size) {
+        State current = state;
+        if (current == null) {
+            return Optional.empty();
+        }
+        List<ItemRequestWithItemsDto> page = new ArrayList<>(size);
+        for (Entry entry : current.entries) {
+            if (page.size() == size) {
+                break;
+            }
+            if (entry.isAfter(cursor) && !entry.requesterId.equals(requesterId)) {
+                page.add(entry.toDto());
+            }
+        }
+        if (page.size() < size && !current.complete) {
+            return Optional.empty();
+        }
+        return Optional.of(page);
+    }
+
+    @TransactionalEventListener
+    public void onItemRequestEvent(ItemRequestEvent event) {
+        synchronized (this) {
+            generation++;
+            if (state == null) {
+                return;
+            }
+            List<Entry> entries = new ArrayList<>(state.entries);
+            entries.removeIf(entry -> entry.id.equals(event.getRequestId()));
+            boolean complete = state.complete;
+            if (event.getType() == ItemRequestEventType.CREATED) {
+                Entry created = new Entry(event.getRequestId(), event.getDescription(), event.getCreated(),
+                        event.getRequesterId(), Collections.emptyList());
+                int position = Collections.binarySearch(entries, created, NEWEST_FIRST);
+                int insertAt = position < 0 ? -position - 1 : position;
+                // Запрос старше хвоста неполного сегмента лежит за его пределами и читается из БД
+                if (insertAt < entries.size() || complete) {
+                    entries.add(insertAt, created);
+                }
+                if (entries.size() > maxSize) {
+                    entries.remove(entries.size() - 1);
+                    complete = false;
+                }
+            }
+            state = new State(List.copyOf(entries), complete);
+        }
+    }
+
+    @TransactionalEventListener
+    public void onItemEvent(ItemEvent event) {
+        Long oldRequestId = event.getBefore() == null ? null : event.getBefore().getRequestId();
+        Long newRequestId = event.getAfter() == null ? null : event.getAfter().getRequestId();
+        if (oldRequestId == null && newRequestId == null) {
+            return;
+        }
+        synchronized (this) {
+            generation++;
+            if (state == null) {
+                return;
+            }
+            // Счётчик ищется до перестройки: новый запрос вещи может стоять в ленте раньше старого
+            long knownCommentCount = 0;
+            for (Entry entry : state.entries) {
+                if (entry.id.equals(oldRequestId) || entry.id.equals(newRequestId)) {
+                    int index = indexOf(entry.items, event.getItemId());
+                    if (index >= 0) {
+                        knownCommentCount = Math.max(knownCommentCount, entry.items.get(index).getCommentCount());
+                    }
+                }
+            }
+            List<Entry> entries = new ArrayList<>(state.entries.size());
+            for (Entry entry : state.entries) {
+                if (entry.id.equals(oldRequestId) || entry.id.equals(newRequestId)) {
+                    List<ItemDto> items = new ArrayList<>(entry.items);
+                    int index = indexOf(items, event.getItemId());
+                    if (index >= 0) {
+                        items.remove(index);
+                    }
+                    if (entry.id.equals(newRequestId)) {
+                        ItemDto item = copy(event.getAfter());
+                        // Снимок в событии мог быть прочитан до отзыва, закоммиченного раньше изменения вещи
+                        item.setCommentCount(Math.max(item.getCommentCount(), knownCommentCount));
+                        items.add(item);
+                        items.sort(Comparator.comparing(ItemDto::getId));
+                    }
+                    entry = entry.withItems(List.copyOf(items));
+                }
+                entries.add(entry);
+            }
+            state = new State(List.copyOf(entries), state.complete);
+        }
+    }
+
+    @TransactionalEventListener
+    public void onCommentCountEvent(CommentCountEvent event) {
+        synchronized (this) {
+            generation++;
+            if (state == null) {
+                return;
+            }
+            List<Entry> entries = new ArrayList<>(state.entries.size());
+            boolean changed = false;
+            for (Entry entry : state.entries) {
+                int index = indexOf(entry.items, event.getItemId());
+                // Счётчик только растёт, поэтому события, пришедшие не по порядку, его не откатят
+                if (index >= 0 && entry.items.get(index).getCommentCount() < event.getCommentCount()) {
+                    List<ItemDto> items = new ArrayList<>(entry.items);
+                    ItemDto item = copy(items.get(index));
+                    item.setCommentCount(event.getCommentCount());
+                    items.set(index, item);
+                    entry = entry.withItems(List.copyOf(items));
+                    changed = true;
+                }
+                entries.add(entry);
+            }
+            if (changed) {
+                state = new State(List.copyOf(entries), state.complete);
+            }
+        }
+    }
+
+    void load() {
+        try {
+            for (int attempt = 1; attempt <= MAX_LOAD_ATTEMPTS; attempt++) {
+                long seenGeneration;
+                synchronized (this) {
+                    seenGeneration = generation;
+                }
+                State loaded = read();
+                synchronized (this) {
+                    // Изменение во время чтения могло в него не попасть: читаем заново
+                    if (generation == seenGeneration) {
+                        state = loaded;
+                        log.info("Сегмент ленты запросов построен: запросов {}", loaded.entries.size());
+                        return;
+                    }
+                }
+            }
+            log.warn("Сегмент ленты запросов не построен: запросы менялись во время каждой загрузки, лента пойдёт через БД");
+        } catch (RuntimeException e) {
+            log.error("Не удалось построить сегмент ленты запросов, лента пойдёт через БД", e);
+        }
+    }
+
+    private State read() {
+        KeysetCursor first = KeysetCursor.first();
+        List<ItemRequest> requests = requestRepository.findPage(
+                first.getTimestamp(), first.getId(), PageRequest.of(0, maxSize));
+        List<Long> requestIds = requests.stream()
+                .map(ItemRequest::getId)
+                .collect(Collectors.toList());
+        Map<Long, List<ItemDto>> itemsByRequestId = itemService.findAllByRequestIdIn(requestIds).stream()
+                .sorted(Comparator.comparing(ItemDto::getId))
+                .collect(Collectors.groupingBy(ItemDto::getRequestId));
+        List<Entry> entries = requests.stream()
+                .map(request -> new Entry(request.getId(), request.getDescription(), request.getCreated(),
+                        request.getRequester().getId(),
+                        List.copyOf(itemsByRequestId.getOrDefault(request.getId(), Collections.emptyList()))))
+                .collect(Collectors.toList());
+        return new State(List.copyOf(entries), requests.size() < maxSize);
+    }
+
+    private static int indexOf(List<ItemDto> items, Long itemId) {
+        for (int i = 0; i < items.size(); i++) {
+            if (items.get(i).getId().equals(itemId)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static ItemDto copy(ItemDto item) {
+        return ItemDto.builder()
+                .id(item.getId())
+                .name(item.getName())
+                .description(item.getDescription())
+                .available(item.getAvailable())
+                .ownerId(item.getOwnerId())
+                .requestId(item.getRequestId())
+                .commentCount(item.getCommentCount())
+                .build();
+    }
+
+    @RequiredArgsConstructor
+    private static final class State {
+        private final List<Entry> entries;
+        // В сегменте все запросы из БД, так что за его хвостом ничего нет
+        private final boolean complete;
+    }
+
+    @RequiredArgsConstructor
+    private static final class Entry {
+        private final Long id;
+        private final String description;
+        private final LocalDateTime created;
+        private final Long requesterId;
+        private final List<ItemDto> items;
+
+        private boolean isAfter(KeysetCursor cursor) {
+            int byCreated = created.compareTo(cursor.getTimestamp());
+            return byCreated < 0 || byCreated == 0 && id < cursor.getId();
+        }
+
+        private Entry withItems(List<ItemDto> newItems) {
+            return new Entry(id, description, created, requesterId, newItems);
+        }
+
+        private ItemRequestWithItemsDto toDto() {
+            return ItemRequestWithItemsDto.builder()
+                    .id(id)
+                    .description(description)
+                    .created(created)
+                    .items(items.stream().map(RequestFeedSegment::copy).collect(Collectors.toList()))
+                    .build();
+        }
+    }
+}
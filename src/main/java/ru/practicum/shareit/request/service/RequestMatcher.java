@@ -0,0 +1,212 @@
+package ru.practicum.shareit.request.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.item.event.ItemEvent;
+import ru.practicum.shareit.item.event.ItemEventType;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.search.ItemSearchHit;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+import ru.practicum.shareit.item.search.SearchMode;
+import ru.practicum.shareit.item.service.ItemInfoService;
+import ru.practicum.shareit.request.event.ItemRequestEvent;
+import ru.practicum.shareit.request.event.ItemRequestEventType;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.model.RequestSuggestion;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.request.repository.RequestSuggestionRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Фоновый подбор вещей под новые запросы. После коммита запрос ставится в ограниченную очередь, и create
+ * не ждёт подбора; если очередь переполнена, запрос остаётся без подсказок. Фиксированный пул потоков
+ * забирает запросы пачками, подбирает до suggestions-limit доступных чужих вещей по описанию через
+ * ItemSearchIndex и сохраняет подсказки пачки одной транзакцией. Пока индекс не построен, потоки ждут,
+ * но не дольше INDEX_WAIT_TIMEOUT: дальше запросы разбираются без подсказок, чтобы очередь не копилась.
+ * Подсказки удаляются вместе с запросом или вещью в их транзакции. Сохраняющая транзакция блокирует строки
+ * запросов и вещей и пропускает уже удалённые, а удаление сначала сбрасывает в БД DELETE самой строки —
+ * поэтому удаление и сохранение подсказок для одного запроса или вещи выполняются по очереди.
+ */
+@Slf4j
+@Component
+public class RequestMatcher {
+    private static final long INDEX_WAIT_MILLIS = 1000;
+    private static final Duration INDEX_WAIT_TIMEOUT = Duration.ofMinutes(5);
+
+    private final ItemSearchIndex itemSearchIndex;
+    private final ItemInfoService itemInfoService;
+    private final ItemRequestRepository requestRepository;
+    private final RequestSuggestionRepository suggestionRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int threads;
+    private final int batchSize;
+    private final int suggestionsLimit;
+
+    private final BlockingQueue<Long> pending;
+    private final ExecutorService workers;
+
+    public RequestMatcher(ItemSearchIndex itemSearchIndex,
+                          ItemInfoService itemInfoService,
+                          ItemRequestRepository requestRepository,
+                          RequestSuggestionRepository suggestionRepository,
+                          PlatformTransactionManager transactionManager,
+                          @Value("${shareit.request.matcher-threads:2}") int threads,
+                          @Value("${shareit.request.matcher-queue-capacity:10000}") int queueCapacity,
+                          @Value("${shareit.request.matcher-batch-size:50}") int batchSize,
+                          @Value("${shareit.request.suggestions-limit:10}") int suggestionsLimit) {
+        this.itemSearchIndex = itemSearchIndex;
+        this.itemInfoService = itemInfoService;
+        this.requestRepository = requestRepository;
+        this.suggestionRepository = suggestionRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.threads = threads;
+        this.batchSize = batchSize;
+        this.suggestionsLimit = suggestionsLimit;
+        this.pending = new ArrayBlockingQueue<>(queueCapacity);
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(threads, task -> {
+            Thread thread = new Thread(task, "request-matcher-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        for (int i = 0; i < threads; i++) {
+            workers.execute(this::work);
+        }
+    }
+
+    @TransactionalEventListener
+    public void onItemRequestEvent(ItemRequestEvent event) {
+        if (event.getType() == ItemRequestEventType.CREATED && !pending.offer(event.getRequestId())) {
+            log.warn("Очередь подбора вещей переполнена, запрос {} останется без подсказок", event.getRequestId());
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onItemRequestDeleted(ItemRequestEvent event) {
+        if (event.getType() == ItemRequestEventType.DELETED) {
+            // DELETE запроса блокирует строку: подбор, уже заблокировавший её, успеет закоммитить подсказки до удаления
+            suggestionRepository.flush();
+            suggestionRepository.deleteByRequestId(event.getRequestId());
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onItemDeleted(ItemEvent event) {
+        if (event.getType() == ItemEventType.DELETED) {
+            suggestionRepository.flush();
+            suggestionRepository.deleteByItemId(event.getItemId());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    private void work() {
+        try {
+            long deadline = System.nanoTime() + INDEX_WAIT_TIMEOUT.toNanos();
+            while (!itemSearchIndex.isReady()) {
+                if (System.nanoTime() - deadline > 0) {
+                    log.error("Индекс поиска не построен за {}, запросы до его построения останутся без подсказок",
+                            INDEX_WAIT_TIMEOUT);
+                    break;
+                }
+                TimeUnit.MILLISECONDS.sleep(INDEX_WAIT_MILLIS);
+            }
+            List<Long> batch = new ArrayList<>(batchSize);
+            while (!Thread.currentThread().isInterrupted()) {
+                batch.add(pending.take());
+                pending.drainTo(batch, batchSize - 1);
+                try {
+                    match(batch);
+                } catch (RuntimeException e) {
+                    log.error("Не удалось подобрать вещи для запросов {}", batch, e);
+                }
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    void match(List<Long> requestIds) {
+        Map<Long, List<ItemSearchHit>> hitsByRequestId = new HashMap<>();
+        Map<Long, Long> requesterByRequestId = new HashMap<>();
+        Set<Long> itemIds = new HashSet<>();
+        for (ItemRequest request : requestRepository.findAllById(requestIds)) {
+            // С запасом: часть найденных вещей может принадлежать автору запроса
+            Optional<List<ItemSearchHit>> hits = itemSearchIndex.match(
+                    request.getDescription(), SearchMode.FUZZY, suggestionsLimit * 2);
+            if (hits.isEmpty()) {
+                continue;
+            }
+            hitsByRequestId.put(request.getId(), hits.get());
+            requesterByRequestId.put(request.getId(), request.getRequester().getId());
+            hits.get().forEach(hit -> itemIds.add(hit.getItemId()));
+        }
+        Map<Long, Item> items = itemInfoService.getByIds(itemIds);
+
+        LocalDateTime now = LocalDateTime.now();
+        List<RequestSuggestion> suggestions = new ArrayList<>();
+        hitsByRequestId.forEach((requestId, hits) -> hits.stream()
+                .filter(hit -> items.containsKey(hit.getItemId()))
+                .filter(hit -> !items.get(hit.getItemId()).getOwner().getId()
+                        .equals(requesterByRequestId.get(requestId)))
+                .limit(suggestionsLimit)
+                .map(hit -> RequestSuggestion.builder()
+                        .requestId(requestId)
+                        .itemId(hit.getItemId())
+                        .score(hit.getScore())
+                        .created(now)
+                        .build())
+                .forEach(suggestions::add));
+        if (suggestions.isEmpty()) {
+            return;
+        }
+        int saved = transactionTemplate.execute(status -> {
+            // Запрос или вещь могли удалить после чтения: блокировка не даст удалить их до коммита подсказок
+            Set<Long> requests = requestRepository.lockByIdIn(hitsByRequestId.keySet()).stream()
+                    .map(ItemRequest::getId)
+                    .collect(Collectors.toSet());
+            Set<Long> existingItems = itemInfoService.lockByIds(suggestions.stream()
+                    .map(RequestSuggestion::getItemId)
+                    .collect(Collectors.toSet()));
+            List<RequestSuggestion> alive = suggestions.stream()
+                    .filter(suggestion -> requests.contains(suggestion.getRequestId()))
+                    .filter(suggestion -> existingItems.contains(suggestion.getItemId()))
+                    .collect(Collectors.toList());
+            suggestionRepository.saveAll(alive);
+            return alive.size();
+        });
+        log.debug("Подобраны вещи для запросов: {}, подсказок {}", requestIds.size(), saved);
+    }
+}
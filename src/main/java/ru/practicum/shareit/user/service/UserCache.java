@@ -0,0 +1,63 @@
+package ru.practicum.shareit.user.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.cache.BoundedCache;
+import ru.practicum.shareit.user.model.User;
+
+/**
+ * Кэш пользователей по ID: почти каждый запрос начинается с проверки, что X-Sharer-User-Id существует.
+ * Хранит неизменяемые снимки и отдаёт новую отсоединённую копию. Размер ограничен shareit.user.cache-size.
+ * Записи сбрасываются при изменении пользователя внутри транзакции и ещё раз после её коммита.
+ * Метрики — с тегом cache=users.
+ */
+@Component
+public class UserCache {
+    private final BoundedCache<Long, Snapshot> snapshots;
+
+    public UserCache(MeterRegistry meterRegistry,
+                     @Value("${shareit.user.cache-size:10000}") int maxSize) {
+        this.snapshots = new BoundedCache<>("users", maxSize, meterRegistry);
+    }
+
+    /**
+     * Копия пользователя из кэша или null, если его там нет.
+     */
+    public User get(Long userId) {
+        Snapshot snapshot = snapshots.get(userId);
+        return snapshot == null ? null : snapshot.toUser();
+    }
+
+    public long generation() {
+        return snapshots.generation();
+    }
+
+    public void put(User user, long seenGeneration) {
+        snapshots.put(user.getId(), new Snapshot(user), seenGeneration);
+    }
+
+    public void evict(Long userId) {
+        snapshots.evict(userId);
+    }
+
+    private static final class Snapshot {
+        private final Long id;
+        private final String name;
+        private final String email;
+
+        private Snapshot(User user) {
+            this.id = user.getId();
+            this.name = user.getName();
+            this.email = user.getEmail();
+        }
+
+        private User toUser() {
+            return User.builder()
+                    .id(id)
+                    .name(name)
+                    .email(email)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package ru.practicum.shareit.user.service;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.cache.ExistenceFilter;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.util.List;
+
+/**
+ * Фильтр заведомо несуществующих ID пользователей.
+ */
+@Component
+public class UserIdFilter extends ExistenceFilter {
+    private final UserRepository userRepository;
+
+    public UserIdFilter(UserRepository userRepository) {
+        super("users");
+        this.userRepository = userRepository;
+    }
+
+    @Override
+    protected Long findMaxId() {
+        return userRepository.findMaxId();
+    }
+
+    @Override
+    protected List<Long> findIdsAfter(Long afterId, Pageable pageable) {
+        return userRepository.findIdsAfter(afterId, pageable);
+    }
+}
@@ -9,6 +9,9 @@ public interface UserService {
 
     User update(Long userId, User user);
 
+    /**
+     * Может вернуть отсоединённую копию из UserCache, поэтому изменять её нельзя.
+     */
     User getById(Long id);
 
     List<User> getAll();
@@ -16,13 +16,17 @@ import java.util.List;
 @Transactional(readOnly = true)
 public class UserServiceImpl implements UserService {
     private final UserRepository userRepository;
+    private final UserCache userCache;
+    private final UserIdFilter userIdFilter;
 
     @Override
     @Transactional
     public User create(User user) {
         validateUser(user);
         try {
-            return userRepository.save(user);
+            User savedUser = userRepository.save(user);
+            userIdFilter.created(savedUser.getId());
+            return savedUser;
         } catch (DataIntegrityViolationException e) {
             throw new ValidationException("Email уже используется");
         }
@@ -31,7 +35,11 @@ public class UserServiceImpl implements UserService {
     @Override
     @Transactional
     public User update(Long userId, User user) {
-        User existingUser = getById(userId);
+        if (!userIdFilter.mightExist(userId)) {
+            throw new NotFoundException("Пользователь с ID " + userId + " не найден");
+        }
+        User existingUser = userRepository.findById(userId)
+                .orElseThrow(() -> new NotFoundException("Пользователь с ID " + userId + " не найден"));
 
         if (user.getName() != null) {
             existingUser.setName(user.getName());
@@ -44,14 +52,26 @@ public class UserServiceImpl implements UserService {
             existingUser.setEmail(user.getEmail());
         }
 
-        return userRepository.save(existingUser);
+        User savedUser = userRepository.save(existingUser);
+        userCache.evict(userId);
+        return savedUser;
     }
 
     @Override
     @Transactional(readOnly = true)
     public User getById(Long id) {
-        return userRepository.findById(id)
+        if (!userIdFilter.mightExist(id)) {
+            throw new NotFoundException("Пользователь с ID " + id + " не найден");
+        }
+        User cached = userCache.get(id);
+        if (cached != null) {
+            return cached;
+        }
+        long generation = userCache.generation();
+        User user = userRepository.findById(id)
                 .orElseThrow(() -> new NotFoundException("Пользователь с ID " + id + " не найден"));
+        userCache.put(user, generation);
+        return user;
     }
 
     @Override
@@ -64,6 +84,8 @@ public class UserServiceImpl implements UserService {
     @Transactional
     public void delete(Long id) {
         userRepository.deleteById(id);
+        userCache.evict(id);
+        userIdFilter.deleted(id);
     }
 
     @Override
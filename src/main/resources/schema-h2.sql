@@ -0,0 +1,15 @@
+-- В H2 секционирования нет: архив бронирований — обычная таблица с теми же колонками и индексами.
+CREATE TABLE IF NOT EXISTS bookings_archive (
+    id BIGINT NOT NULL,
+    start_date TIMESTAMP NOT NULL,
+    end_date TIMESTAMP NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    item_id BIGINT NOT NULL REFERENCES items(id),
+    booker_id BIGINT NOT NULL REFERENCES users(id),
+    PRIMARY KEY (id, end_date)
+);
+
+CREATE INDEX IF NOT EXISTS ix_bookings_archive_booker_start ON bookings_archive (booker_id, start_date, id);
+CREATE INDEX IF NOT EXISTS ix_bookings_archive_item_start ON bookings_archive (item_id, start_date, id);
+CREATE INDEX IF NOT EXISTS ix_bookings_archive_item_end ON bookings_archive (item_id, end_date, id);
+CREATE INDEX IF NOT EXISTS ix_bookings_archive_status_booker_item_end ON bookings_archive (status, booker_id, item_id, end_date);
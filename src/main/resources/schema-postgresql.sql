@@ -0,0 +1,18 @@
+-- Архив завершившихся бронирований, секционированный по дате окончания.
+-- Годовые секции заводит BookingArchiver на год вперёд; строки вне их попадают в секцию по умолчанию.
+CREATE TABLE IF NOT EXISTS bookings_archive (
+    id BIGINT NOT NULL,
+    start_date TIMESTAMP NOT NULL,
+    end_date TIMESTAMP NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    item_id BIGINT NOT NULL REFERENCES items(id),
+    booker_id BIGINT NOT NULL REFERENCES users(id),
+    PRIMARY KEY (id, end_date)
+) PARTITION BY RANGE (end_date);
+
+CREATE TABLE IF NOT EXISTS bookings_archive_default PARTITION OF bookings_archive DEFAULT;
+
+CREATE INDEX IF NOT EXISTS ix_bookings_archive_booker_start ON bookings_archive (booker_id, start_date, id);
+CREATE INDEX IF NOT EXISTS ix_bookings_archive_item_start ON bookings_archive (item_id, start_date, id);
+CREATE INDEX IF NOT EXISTS ix_bookings_archive_item_end ON bookings_archive (item_id, end_date, id);
+CREATE INDEX IF NOT EXISTS ix_bookings_archive_status_booker_item_end ON bookings_archive (status, booker_id, item_id, end_date);
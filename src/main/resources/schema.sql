@@ -1,11 +1,33 @@
 CREATE TABLE IF NOT EXISTS users (
     id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
     name VARCHAR(255) NOT NULL,
-    email VARCHAR(255) NOT NULL UNIQUE
-    CONSTRAINT pk_user PRIMARY KEY (id),
-    CONSTRAINT UQ_USER_EMAIL UNIQUE (email)
+    email VARCHAR(255) NOT NULL,
+
+    CONSTRAINT uq_user_email UNIQUE (email)
+);
+
+CREATE TABLE IF NOT EXISTS requests (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    description VARCHAR(1000) NOT NULL,
+    requester_id BIGINT NOT NULL REFERENCES users(id),
+    created TIMESTAMP NOT NULL
+);
+
+-- Лента чужих запросов идёт по (created, id) от новых к старым
+CREATE INDEX IF NOT EXISTS ix_requests_created ON requests (created, id);
+
+CREATE TABLE IF NOT EXISTS request_suggestions (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    request_id BIGINT NOT NULL,
+    item_id BIGINT NOT NULL,
+    score DOUBLE PRECISION NOT NULL,
+    created TIMESTAMP NOT NULL,
+
+    CONSTRAINT uq_request_suggestions_request_item UNIQUE (request_id, item_id)
 );
 
+CREATE INDEX IF NOT EXISTS ix_request_suggestions_item ON request_suggestions (item_id);
+
 CREATE TABLE IF NOT EXISTS items (
     id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
     name VARCHAR(255) NOT NULL,
@@ -13,11 +35,15 @@ CREATE TABLE IF NOT EXISTS items (
     available BOOLEAN NOT NULL,
     owner_id BIGINT NOT NULL,
     request_id BIGINT,
+    comment_count BIGINT NOT NULL DEFAULT 0,
 
+    -- Без каскада: вещи удаляются только через сервис, который сбрасывает кэши и индексы
     CONSTRAINT fk_items_to_users FOREIGN KEY (owner_id)
-        REFERENCES users (id) ON DELETE CASCADE
+        REFERENCES users (id)
 );
 
+CREATE INDEX IF NOT EXISTS ix_items_owner ON items (owner_id);
+
 CREATE TABLE IF NOT EXISTS bookings (
     id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
     start_date TIMESTAMP NOT NULL,
@@ -27,10 +53,36 @@ CREATE TABLE IF NOT EXISTS bookings (
     booker_id BIGINT NOT NULL REFERENCES users(id)
 );
 
+CREATE INDEX IF NOT EXISTS ix_bookings_booker_start ON bookings (booker_id, start_date, id);
+CREATE INDEX IF NOT EXISTS ix_bookings_item_start ON bookings (item_id, start_date, id);
+CREATE INDEX IF NOT EXISTS ix_bookings_item_end ON bookings (item_id, end_date, id);
+CREATE INDEX IF NOT EXISTS ix_bookings_status_start ON bookings (status, start_date);
+CREATE INDEX IF NOT EXISTS ix_bookings_status_end ON bookings (status, end_date);
+CREATE INDEX IF NOT EXISTS ix_bookings_status_booker_item_end ON bookings (status, booker_id, item_id, end_date);
+
 CREATE TABLE IF NOT EXISTS comments (
     id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
     text VARCHAR(1000) NOT NULL,
     item_id BIGINT NOT NULL REFERENCES items(id),
     author_id BIGINT NOT NULL REFERENCES users(id),
     created TIMESTAMP NOT NULL
-);
\ No newline at end of file
+);
+
+CREATE INDEX IF NOT EXISTS ix_comments_item_created ON comments (item_id, created, id);
+
+-- Разовые переносы данных отмечаются здесь и при следующих запусках не выполняются
+CREATE TABLE IF NOT EXISTS data_migrations (
+    name VARCHAR(100) PRIMARY KEY,
+    applied TIMESTAMP NOT NULL
+);
+
+-- Счётчик отзывов появился позже самих отзывов: у старых вещей он дозаполняется один раз.
+ALTER TABLE items ADD COLUMN IF NOT EXISTS comment_count BIGINT NOT NULL DEFAULT 0;
+
+UPDATE items SET comment_count = (SELECT COUNT(*) FROM comments c WHERE c.item_id = items.id)
+WHERE NOT EXISTS (SELECT 1 FROM data_migrations m WHERE m.name = 'items_comment_count')
+AND comment_count = 0 AND EXISTS (SELECT 1 FROM comments c WHERE c.item_id = items.id);
+
+INSERT INTO data_migrations (name, applied)
+SELECT 'items_comment_count', CURRENT_TIMESTAMP
+WHERE NOT EXISTS (SELECT 1 FROM data_migrations m WHERE m.name = 'items_comment_count');
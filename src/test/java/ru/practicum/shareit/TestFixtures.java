@@ -0,0 +1,38 @@
+package ru.practicum.shareit;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Общие заготовки для тестов на полном контексте: пользователи с уникальной почтой и доступные вещи,
+ * созданные через сервисы, чтобы кэши и индексы видели их так же, как в работе.
+ */
+@Component
+@RequiredArgsConstructor
+public class TestFixtures {
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+
+    private final UserService userService;
+    private final ItemService itemService;
+
+    public User createUser(String name) {
+        return userService.create(User.builder()
+                .name(name)
+                .email(name + "-" + SEQUENCE.incrementAndGet() + "-" + System.nanoTime() + "@test.ru")
+                .build());
+    }
+
+    public Item createItem(User owner) {
+        return itemService.create(Item.builder()
+                .name("item")
+                .description("description")
+                .available(true)
+                .build(), owner.getId());
+    }
+}
@@ -0,0 +1,95 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.TestFixtures;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
+import ru.practicum.shareit.booking.dto.BookingRequestDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class BookingBatchInsertTest {
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Test
+    void insertAllAssignsGeneratedIdsInInputOrder() {
+        User owner = fixtures.createUser("owner");
+        User booker = fixtures.createUser("booker");
+        LocalDateTime base = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.SECONDS);
+        List<Booking> bookings = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            bookings.add(Booking.builder()
+                    .start(base.plusDays(5 - i))
+                    .end(base.plusDays(5 - i).plusHours(1))
+                    .item(fixtures.createItem(owner))
+                    .booker(booker)
+                    .status(BookingStatus.WAITING)
+                    .build());
+        }
+
+        bookingRepository.insertAll(bookings);
+
+        for (int i = 0; i < bookings.size(); i++) {
+            Booking inserted = bookings.get(i);
+            assertNotNull(inserted.getId());
+            if (i > 0) {
+                assertTrue(inserted.getId() > bookings.get(i - 1).getId());
+            }
+            Booking stored = bookingRepository.findById(inserted.getId()).orElseThrow();
+            assertEquals(inserted.getStart(), stored.getStart());
+            assertEquals(inserted.getItem().getId(), stored.getItem().getId());
+        }
+    }
+
+    @Test
+    void createBookingsReportsNullElementByIndex() {
+        User owner = fixtures.createUser("owner");
+        User booker = fixtures.createUser("booker");
+        Item first = fixtures.createItem(owner);
+        Item second = fixtures.createItem(owner);
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+
+        List<BookingBatchResultDto> results = bookingService.createBookings(Arrays.asList(
+                request(first, start), null, request(second, start)), booker.getId());
+
+        assertEquals(3, results.size());
+        assertEquals(first.getId(), results.get(0).getBooking().getItem().getId());
+        assertNull(results.get(1).getBooking());
+        assertEquals(1, results.get(1).getIndex());
+        assertNotNull(results.get(1).getError());
+        assertEquals(second.getId(), results.get(2).getBooking().getItem().getId());
+    }
+
+    private BookingRequestDto request(Item item, LocalDateTime start) {
+        return BookingRequestDto.builder()
+                .itemId(item.getId())
+                .start(start)
+                .end(start.plusHours(2))
+                .build();
+    }
+}
@@ -0,0 +1,131 @@
+package ru.practicum.shareit.booking;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import ru.practicum.shareit.TestFixtures;
+import ru.practicum.shareit.booking.archive.BookingArchiver;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.ArchivedBookingRepository;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.pagination.KeysetCursor;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class BookingPagingTest {
+    private static final int PAGE_SIZE = 2;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private ArchivedBookingRepository archivedBookingRepository;
+
+    @Autowired
+    private BookingArchiver bookingArchiver;
+
+    @Test
+    void everyStatePagesThroughBookingsWithSharedStart() throws Exception {
+        User owner = fixtures.createUser("owner");
+        User booker = fixtures.createUser("booker");
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        // В каждой группе у бронирований одно начало, и страница по 2 делит группу: порядок решает id
+        List<Booking> archivedPast = save(owner, booker, 3, now.minusDays(40), now.minusDays(39),
+                BookingStatus.APPROVED);
+        List<Booking> archivedRejected = save(owner, booker, 1, now.minusDays(50), now.minusDays(49),
+                BookingStatus.REJECTED);
+        bookingArchiver.archive();
+        assertTrue(archivedBookingRepository.existsById(archivedPast.get(0).getId()));
+        List<Booking> past = save(owner, booker, 3, now.minusDays(10), now.minusDays(9), BookingStatus.APPROVED);
+        List<Booking> current = save(owner, booker, 3, now.minusDays(1), now.plusDays(1), BookingStatus.APPROVED);
+        List<Booking> future = save(owner, booker, 3, now.plusDays(5), now.plusDays(6), BookingStatus.APPROVED);
+        List<Booking> waiting = save(owner, booker, 3, now.plusDays(10), now.plusDays(11), BookingStatus.WAITING);
+        List<Booking> rejected = save(owner, booker, 2, now.plusDays(20), now.plusDays(21), BookingStatus.REJECTED);
+
+        for (String path : List.of("/bookings", "/bookings/owner")) {
+            Long userId = path.endsWith("owner") ? owner.getId() : booker.getId();
+            assertEquals(newestFirst(archivedPast, archivedRejected, past, current, future, waiting, rejected),
+                    pageThrough(path, userId, "ALL"));
+            assertEquals(newestFirst(current), pageThrough(path, userId, "CURRENT"));
+            // Страница горячей таблицы на стыке дополняется архивом
+            assertEquals(newestFirst(past, archivedPast, archivedRejected), pageThrough(path, userId, "PAST"));
+            assertEquals(newestFirst(future, waiting, rejected), pageThrough(path, userId, "FUTURE"));
+            assertEquals(newestFirst(waiting), pageThrough(path, userId, "WAITING"));
+            assertEquals(newestFirst(rejected, archivedRejected), pageThrough(path, userId, "REJECTED"));
+        }
+    }
+
+    private List<Long> pageThrough(String path, Long userId, String state) throws Exception {
+        List<Long> ids = new ArrayList<>();
+        String cursor = null;
+        do {
+            MockHttpServletRequestBuilder request = get(path)
+                    .header("X-Sharer-User-Id", userId)
+                    .param("state", state)
+                    .param("size", String.valueOf(PAGE_SIZE));
+            if (cursor != null) {
+                request.param("cursor", cursor);
+            }
+            MvcResult result = mockMvc.perform(request).andExpect(status().isOk()).andReturn();
+            JsonNode bookings = objectMapper.readTree(result.getResponse().getContentAsString());
+            assertTrue(bookings.size() <= PAGE_SIZE);
+            bookings.forEach(booking -> ids.add(booking.get("id").asLong()));
+            cursor = result.getResponse().getHeader(KeysetCursor.NEXT_CURSOR_HEADER);
+        } while (cursor != null);
+        return ids;
+    }
+
+    @SafeVarargs
+    private static List<Long> newestFirst(List<Booking>... groups) {
+        return Stream.of(groups)
+                .flatMap(List::stream)
+                .sorted(Comparator.comparing(Booking::getStart).thenComparing(Booking::getId).reversed())
+                .map(Booking::getId)
+                .collect(Collectors.toList());
+    }
+
+    private List<Booking> save(User owner, User booker, int count, LocalDateTime start, LocalDateTime end,
+                               BookingStatus status) {
+        List<Booking> bookings = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            bookings.add(bookingRepository.save(Booking.builder()
+                    .start(start)
+                    .end(end)
+                    .item(fixtures.createItem(owner))
+                    .booker(booker)
+                    .status(status)
+                    .build()));
+        }
+        return bookings;
+    }
+}
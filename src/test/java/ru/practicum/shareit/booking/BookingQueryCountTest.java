@@ -0,0 +1,151 @@
+package ru.practicum.shareit.booking;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.TestFixtures;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingRequestDto;
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.pagination.KeysetCursor;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class BookingQueryCountTest {
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void ownerBookingsQueryCountDoesNotDependOnResultSize() {
+        User smallOwner = fixtures.createUser("owner");
+        book(fixtures.createItem(smallOwner), fixtures.createUser("booker"), 1);
+
+        User bigOwner = fixtures.createUser("owner");
+        for (int i = 0; i < 5; i++) {
+            book(fixtures.createItem(bigOwner), fixtures.createUser("booker"), i + 1);
+        }
+
+        long smallCount = countQueries(() -> assertEquals(1, ownerBookings(smallOwner).size()));
+        long bigCount = countQueries(() -> assertEquals(5, ownerBookings(bigOwner).size()));
+
+        assertEquals(smallCount, bigCount);
+    }
+
+    @Test
+    void userBookingsQueryCountDoesNotDependOnResultSize() {
+        User smallBooker = fixtures.createUser("booker");
+        book(fixtures.createItem(fixtures.createUser("owner")), smallBooker, 1);
+
+        User bigBooker = fixtures.createUser("booker");
+        for (int i = 0; i < 5; i++) {
+            book(fixtures.createItem(fixtures.createUser("owner")), bigBooker, i + 1);
+        }
+
+        long smallCount = countQueries(() -> assertEquals(1, userBookings(smallBooker).size()));
+        long bigCount = countQueries(() -> assertEquals(5, userBookings(bigBooker).size()));
+
+        assertEquals(smallCount, bigCount);
+    }
+
+    @Test
+    void bookingByIdIsLoadedWithSingleQuery() {
+        User owner = fixtures.createUser("owner");
+        BookingResponseDto booking = book(fixtures.createItem(owner), fixtures.createUser("booker"), 1);
+
+        long count = countQueries(() -> bookingService.getBookingById(booking.getId(), owner.getId()));
+
+        assertEquals(1, count);
+    }
+
+    @Test
+    void batchApprovalQueryCountDoesNotDependOnBatchSize() {
+        User smallOwner = fixtures.createUser("owner");
+        List<BookingDecisionDto> smallBatch = List.of(
+                approve(book(fixtures.createItem(smallOwner), fixtures.createUser("booker"), 1)));
+
+        User bigOwner = fixtures.createUser("owner");
+        List<BookingDecisionDto> bigBatch = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            bigBatch.add(approve(book(fixtures.createItem(bigOwner), fixtures.createUser("booker"), i + 1)));
+        }
+
+        long smallCount = countQueries(() -> bookingService.decideBookings(smallBatch, smallOwner.getId()));
+        long bigCount = countQueries(() -> bookingService.decideBookings(bigBatch, bigOwner.getId()));
+
+        assertEquals(smallCount, bigCount);
+    }
+
+    @Test
+    void batchApprovalRejectsOverlapWithAlreadyApprovedBooking() {
+        User owner = fixtures.createUser("owner");
+        Item item = fixtures.createItem(owner);
+        BookingResponseDto approved = book(item, fixtures.createUser("booker"), 1);
+        BookingResponseDto overlapping = book(item, fixtures.createUser("booker"), 1);
+        BookingResponseDto later = book(item, fixtures.createUser("booker"), 3);
+        bookingService.approveBooking(approved.getId(), owner.getId(), true);
+
+        List<BookingBatchResultDto> results = bookingService.decideBookings(
+                List.of(approve(overlapping), approve(later)), owner.getId());
+
+        assertNotNull(results.get(0).getError());
+        assertEquals(BookingStatus.APPROVED, results.get(1).getBooking().getStatus());
+    }
+
+    private List<BookingResponseDto> ownerBookings(User owner) {
+        return bookingService.getOwnerBookings(owner.getId(), "ALL", KeysetCursor.first(), 20);
+    }
+
+    private List<BookingResponseDto> userBookings(User booker) {
+        return bookingService.getUserBookings(booker.getId(), "ALL", KeysetCursor.first(), 20);
+    }
+
+    private long countQueries(Runnable action) {
+        statistics.clear();
+        action.run();
+        return statistics.getPrepareStatementCount();
+    }
+
+    private static BookingDecisionDto approve(BookingResponseDto booking) {
+        return BookingDecisionDto.builder()
+                .bookingId(booking.getId())
+                .approved(true)
+                .build();
+    }
+
+    private BookingResponseDto book(Item item, User booker, int daysAhead) {
+        LocalDateTime start = LocalDateTime.now().plusDays(daysAhead);
+        return bookingService.createBooking(BookingRequestDto.builder()
+                .itemId(item.getId())
+                .start(start)
+                .end(start.plusHours(2))
+                .build(), booker.getId());
+    }
+}
@@ -0,0 +1,93 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.TestFixtures;
+import ru.practicum.shareit.booking.archive.BookingArchiver;
+import ru.practicum.shareit.booking.dto.BookingSummaryDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.ArchivedBookingRepository;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.pagination.KeysetCursor;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class BookingSummaryTest {
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private ArchivedBookingRepository archivedBookingRepository;
+
+    @Autowired
+    private BookingArchiver bookingArchiver;
+
+    @Test
+    void summaryCountersMatchStateLists() {
+        User owner = fixtures.createUser("owner");
+        User booker = fixtures.createUser("booker");
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        Booking archived = save(owner, booker, now.minusDays(40), now.minusDays(39), BookingStatus.APPROVED);
+        bookingArchiver.archive();
+        assertTrue(archivedBookingRepository.existsById(archived.getId()));
+        save(owner, booker, now.minusDays(10), now.minusDays(9), BookingStatus.APPROVED);
+        save(owner, booker, now.minusDays(1), now.plusDays(1), BookingStatus.APPROVED);
+        save(owner, booker, now.minusDays(1), now.plusDays(2), BookingStatus.APPROVED);
+        save(owner, booker, now.plusDays(5), now.plusDays(6), BookingStatus.APPROVED);
+        save(owner, booker, now.plusDays(7), now.plusDays(8), BookingStatus.WAITING);
+        save(owner, booker, now.plusDays(9), now.plusDays(10), BookingStatus.REJECTED);
+        save(owner, booker, now.minusDays(5), now.minusDays(4), BookingStatus.REJECTED);
+
+        BookingSummaryDto userSummary = bookingService.getUserBookingSummary(booker.getId());
+        BookingSummaryDto ownerSummary = bookingService.getOwnerBookingSummary(owner.getId());
+
+        Map<String, Long> expected = Map.of(
+                "ALL", 8L, "CURRENT", 2L, "PAST", 3L, "FUTURE", 3L, "WAITING", 1L, "REJECTED", 2L);
+        assertEquals(expected, counters(userSummary));
+        assertEquals(expected, counters(ownerSummary));
+        // Каждый счётчик сходится со списком своего состояния, включая архивную строку
+        expected.keySet().forEach(state -> {
+            assertEquals(expected.get(state).longValue(),
+                    bookingService.getUserBookings(booker.getId(), state, KeysetCursor.first(), 100).size(), state);
+            assertEquals(expected.get(state).longValue(),
+                    bookingService.getOwnerBookings(owner.getId(), state, KeysetCursor.first(), 100).size(), state);
+        });
+    }
+
+    private static Map<String, Long> counters(BookingSummaryDto summary) {
+        return Map.of(
+                "ALL", summary.getAll(),
+                "CURRENT", summary.getCurrent(),
+                "PAST", summary.getPast(),
+                "FUTURE", summary.getFuture(),
+                "WAITING", summary.getWaiting(),
+                "REJECTED", summary.getRejected());
+    }
+
+    private Booking save(User owner, User booker, LocalDateTime start, LocalDateTime end, BookingStatus status) {
+        return bookingRepository.save(Booking.builder()
+                .start(start)
+                .end(end)
+                .item(fixtures.createItem(owner))
+                .booker(booker)
+                .status(status)
+                .build());
+    }
+}
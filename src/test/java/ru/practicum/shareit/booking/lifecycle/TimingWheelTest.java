@@ -0,0 +1,115 @@
+package ru.practicum.shareit.booking.lifecycle;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimingWheelTest {
+    private static final long MAX_DELAY_TICKS = (1L << 24) - 1;
+
+    private final List<String> fired = new ArrayList<>();
+
+    @Test
+    void timerFiresOnTheTickOfItsDeadline() {
+        TimingWheel<String> wheel = new TimingWheel<>(1000, 0);
+        wheel.schedule(5000, "t");
+
+        wheel.advance(4999, fired::add);
+        assertTrue(fired.isEmpty());
+
+        wheel.advance(5000, fired::add);
+        assertEquals(List.of("t"), fired);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void deadlineBetweenTicksIsRoundedUp() {
+        TimingWheel<String> wheel = new TimingWheel<>(1000, 0);
+        wheel.schedule(5001, "t");
+
+        wheel.advance(5999, fired::add);
+        assertTrue(fired.isEmpty());
+
+        wheel.advance(6000, fired::add);
+        assertEquals(List.of("t"), fired);
+    }
+
+    @Test
+    void overdueTimerFiresOnNextAdvance() {
+        TimingWheel<String> wheel = new TimingWheel<>(1000, 10_000);
+        wheel.schedule(3000, "late");
+
+        wheel.advance(10_000, fired::add);
+
+        assertEquals(List.of("late"), fired);
+    }
+
+    @Test
+    void timersAtLevelBoundariesFireExactlyOnTime() {
+        long[] delays = {1, 63, 64, 65, 4095, 4096, 4097, 262_143, 262_144, 262_145};
+        for (long start : new long[]{0, 10, 4090}) {
+            for (long delay : delays) {
+                assertFiresAt(start, start + delay);
+            }
+        }
+    }
+
+    @Test
+    void timerBeyondWheelRangeIsRecascadedUntilDue() {
+        long deadline = MAX_DELAY_TICKS + 100;
+        TimingWheel<String> wheel = new TimingWheel<>(1, 0);
+        wheel.schedule(deadline, "far");
+
+        wheel.advance(deadline - 1, fired::add);
+        assertTrue(fired.isEmpty());
+        assertEquals(1, wheel.size());
+
+        wheel.advance(deadline, fired::add);
+        assertEquals(List.of("far"), fired);
+    }
+
+    @Test
+    void cancelledTimerDoesNotFireAfterCascade() {
+        TimingWheel<String> wheel = new TimingWheel<>(1, 0);
+        TimingWheel.Timer<String> cancelled = wheel.schedule(5000, "cancelled");
+        wheel.schedule(5000, "kept");
+
+        // Оба таймера уже разложены на нулевой уровень
+        wheel.advance(4990, fired::add);
+        wheel.cancel(cancelled);
+        wheel.cancel(cancelled);
+        assertEquals(1, wheel.size());
+
+        wheel.advance(5000, fired::add);
+        assertEquals(List.of("kept"), fired);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void timersOfOneTickFireInSchedulingOrder() {
+        TimingWheel<String> wheel = new TimingWheel<>(1, 0);
+        wheel.schedule(100, "a");
+        wheel.schedule(99, "early");
+        wheel.schedule(100, "b");
+
+        wheel.advance(100, fired::add);
+
+        assertEquals(List.of("early", "a", "b"), fired);
+    }
+
+    private void assertFiresAt(long start, long deadline) {
+        TimingWheel<Long> wheel = new TimingWheel<>(1, start);
+        List<Long> expired = new ArrayList<>();
+        wheel.schedule(deadline, deadline);
+
+        wheel.advance(deadline - 1, expired::add);
+        assertTrue(expired.isEmpty(), "сработал раньше срока: start=" + start + ", deadline=" + deadline);
+
+        wheel.advance(deadline, expired::add);
+        assertEquals(List.of(deadline), expired, "не сработал в срок: start=" + start + ", deadline=" + deadline);
+    }
+}
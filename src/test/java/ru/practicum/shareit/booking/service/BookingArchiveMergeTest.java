@@ -0,0 +1,81 @@
+package ru.practicum.shareit.booking.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.booking.archive.BookingArchiver;
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.model.ArchivedBooking;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.ArchivedBookingRepository;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.pagination.KeysetCursor;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BookingArchiveMergeTest {
+    private static final LocalDateTime NOW = LocalDateTime.now();
+    private static final User BOOKER = User.builder().id(1L).name("booker").email("booker@test.ru").build();
+    private static final Item ITEM = Item.builder().id(10L).name("item").description("description")
+            .available(true).owner(User.builder().id(2L).build()).build();
+
+    @Mock
+    private BookingRepository bookingRepository;
+    @Mock
+    private ArchivedBookingRepository archivedBookingRepository;
+    @Mock
+    private BookingArchiver bookingArchiver;
+    @Mock
+    private UserService userService;
+    @InjectMocks
+    private BookingServiceImpl bookingService;
+
+    @Test
+    void bookingMovedToArchiveBetweenQueriesIsShownOnce() {
+        // Бронирование 2 прочитано из горячей таблицы, а до чтения архива архиватор уже перенёс его
+        when(bookingRepository.findPastByBooker(eq(1L), any(), any(), any(), any())).thenReturn(List.of(
+                booking(3L, NOW.minusDays(31)), booking(2L, NOW.minusDays(32))));
+        when(archivedBookingRepository.findAllByBooker(eq(1L), any(), any(), any())).thenReturn(List.of(
+                archived(2L, NOW.minusDays(32)), archived(1L, NOW.minusDays(33))));
+
+        List<BookingResponseDto> page = bookingService.getUserBookings(1L, "PAST", KeysetCursor.first(), 3);
+
+        assertEquals(List.of(3L, 2L, 1L), page.stream().map(BookingResponseDto::getId).collect(Collectors.toList()));
+    }
+
+    private static Booking booking(Long id, LocalDateTime start) {
+        return Booking.builder()
+                .id(id)
+                .start(start)
+                .end(start.plusHours(1))
+                .item(ITEM)
+                .booker(BOOKER)
+                .status(BookingStatus.APPROVED)
+                .build();
+    }
+
+    private static ArchivedBooking archived(Long id, LocalDateTime start) {
+        return ArchivedBooking.builder()
+                .id(id)
+                .start(start)
+                .end(start.plusHours(1))
+                .item(ITEM)
+                .booker(BOOKER)
+                .status(BookingStatus.APPROVED)
+                .build();
+    }
+}
@@ -0,0 +1,155 @@
+package ru.practicum.shareit.booking.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.booking.dto.BookingIntervalDto;
+import ru.practicum.shareit.booking.dto.BusyIntervalDto;
+import ru.practicum.shareit.booking.event.BookingEvent;
+import ru.practicum.shareit.booking.event.BookingEventType;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.event.ItemEvent;
+import ru.practicum.shareit.item.event.ItemEventType;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BookingAvailabilityIndexTest {
+    private static final Long ITEM_ID = 1L;
+
+    private final BookingRepository bookingRepository = mock(BookingRepository.class);
+    private final BookingAvailabilityIndex index = new BookingAvailabilityIndex(bookingRepository, 2);
+    private LocalDateTime base;
+
+    @BeforeEach
+    void setUp() {
+        base = LocalDateTime.now().plusDays(10).truncatedTo(ChronoUnit.DAYS);
+    }
+
+    @Test
+    void adjacentIntervalsDoNotConflict() {
+        approved(interval(1, 1, 3), interval(2, 3, 5));
+
+        assertFalse(index.hasConflict(ITEM_ID, day(0), day(1)));
+        assertFalse(index.hasConflict(ITEM_ID, day(5), day(6)));
+        assertTrue(index.hasConflict(ITEM_ID, day(2), day(3)));
+        assertTrue(index.hasConflict(ITEM_ID, day(3), day(4)));
+    }
+
+    @Test
+    void adjacentIntervalsMergeIntoOneBusyRange() {
+        approved(interval(1, 1, 3), interval(2, 3, 5));
+
+        assertEquals(List.of(busy(day(1), day(5))), index.getBusyIntervals(ITEM_ID, day(0), day(10)));
+    }
+
+    @Test
+    void intervalNestedInLongerOneIsStillCoveredByTheLongerOne() {
+        approved(interval(1, 1, 6), interval(2, 2, 3));
+
+        // Последний начавшийся интервал уже закончился, пересечение находит максимум концов
+        assertTrue(index.hasConflict(ITEM_ID, day(4), day(5)));
+        assertFalse(index.hasConflict(ITEM_ID, day(6), day(7)));
+        assertEquals(List.of(busy(day(1), day(6))), index.getBusyIntervals(ITEM_ID, day(0), day(10)));
+    }
+
+    @Test
+    void gapBetweenIntervalsIsFreeAndBusyRangesAreClippedToWindow() {
+        approved(interval(1, 1, 2), interval(2, 4, 5));
+
+        assertFalse(index.hasConflict(ITEM_ID, day(2), day(4)));
+        assertEquals(List.of(busy(day(1).plusHours(12), day(2)), busy(day(4), day(4).plusHours(12))),
+                index.getBusyIntervals(ITEM_ID, day(1).plusHours(12), day(4).plusHours(12)));
+    }
+
+    @Test
+    void approvalAndRejectionUpdateLoadedIntervals() {
+        approved(interval(1, 1, 2));
+        assertFalse(index.hasConflict(ITEM_ID, day(3), day(4)));
+
+        index.onBookingEvent(event(BookingEventType.APPROVED, 2, 3, 5));
+        index.onBookingEvent(event(BookingEventType.APPROVED, 2, 3, 5));
+        assertTrue(index.hasConflict(ITEM_ID, day(3), day(4)));
+        assertEquals(List.of(busy(day(1), day(2)), busy(day(3), day(5))),
+                index.getBusyIntervals(ITEM_ID, day(0), day(10)));
+
+        index.onBookingEvent(event(BookingEventType.REJECTED, 2, 3, 5));
+        assertFalse(index.hasConflict(ITEM_ID, day(3), day(4)));
+        assertTrue(index.hasConflict(ITEM_ID, day(1), day(2)));
+    }
+
+    @Test
+    void approvalInsertedBeforeExistingIntervalKeepsOrder() {
+        approved(interval(1, 5, 6));
+        index.hasConflict(ITEM_ID, day(0), day(1));
+
+        index.onBookingEvent(event(BookingEventType.APPROVED, 2, 1, 2));
+
+        assertTrue(index.hasConflict(ITEM_ID, day(1), day(2)));
+        assertFalse(index.hasConflict(ITEM_ID, day(2), day(5)));
+        assertTrue(index.hasConflict(ITEM_ID, day(5), day(6)));
+    }
+
+    @Test
+    void deletedItemIsDropped() {
+        approved(interval(1, 1, 2));
+        assertTrue(index.hasConflict(ITEM_ID, day(1), day(2)));
+
+        index.onItemEvent(ItemEvent.builder().type(ItemEventType.DELETED).itemId(ITEM_ID).build());
+        index.hasConflict(ITEM_ID, day(1), day(2));
+
+        verify(bookingRepository, times(2)).findIntervalsByItemIdAndStatus(eq(ITEM_ID), any(), any());
+    }
+
+    @Test
+    void itemsOverLimitAreEvictedAndReloaded() {
+        BookingAvailabilityIndex small = new BookingAvailabilityIndex(bookingRepository, 1);
+        when(bookingRepository.findIntervalsByItemIdAndStatus(any(), any(), any())).thenReturn(List.of());
+
+        small.hasConflict(1L, day(1), day(2));
+        small.hasConflict(2L, day(1), day(2));
+        small.hasConflict(2L, day(1), day(2));
+        small.hasConflict(1L, day(1), day(2));
+
+        verify(bookingRepository, times(2)).findIntervalsByItemIdAndStatus(eq(1L), any(), any());
+        verify(bookingRepository, times(1)).findIntervalsByItemIdAndStatus(eq(2L), any(), any());
+    }
+
+    private void approved(BookingIntervalDto... intervals) {
+        when(bookingRepository.findIntervalsByItemIdAndStatus(eq(ITEM_ID), any(), any()))
+                .thenReturn(Arrays.asList(intervals));
+    }
+
+    private BookingIntervalDto interval(long id, int startDay, int endDay) {
+        return new BookingIntervalDto(id, day(startDay), day(endDay));
+    }
+
+    private BookingEvent event(BookingEventType type, long bookingId, int startDay, int endDay) {
+        return BookingEvent.builder()
+                .type(type)
+                .bookingId(bookingId)
+                .itemId(ITEM_ID)
+                .start(day(startDay))
+                .end(day(endDay))
+                .build();
+    }
+
+    private static BusyIntervalDto busy(LocalDateTime start, LocalDateTime end) {
+        return new BusyIntervalDto(start, end);
+    }
+
+    private LocalDateTime day(int day) {
+        return base.plusDays(day);
+    }
+}
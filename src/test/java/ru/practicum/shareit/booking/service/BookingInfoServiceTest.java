@@ -0,0 +1,58 @@
+package ru.practicum.shareit.booking.service;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.ArchivedBookingRepository;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class BookingInfoServiceTest {
+    private final BookingRepository bookingRepository = mock(BookingRepository.class);
+    private final ArchivedBookingRepository archivedBookingRepository = mock(ArchivedBookingRepository.class);
+    private final CompletedBookingIndex completedBookingIndex = mock(CompletedBookingIndex.class);
+    private final BookingInfoService service = new BookingInfoService(bookingRepository,
+            mock(BookingAvailabilityIndex.class), archivedBookingRepository, completedBookingIndex);
+
+    @Test
+    void indexHitIsTrustedWithoutDatabase() {
+        when(completedBookingIndex.covers(1L, 10L)).thenReturn(true);
+        when(completedBookingIndex.hasCompletedBooking(1L, 10L)).thenReturn(true);
+
+        assertTrue(service.hasUserBookedItem(1L, 10L));
+        verifyNoInteractions(bookingRepository, archivedBookingRepository);
+    }
+
+    @Test
+    void indexMissIsConfirmedInDatabase() {
+        when(completedBookingIndex.covers(1L, 10L)).thenReturn(true);
+        // Бронирование подтвердил другой экземпляр приложения
+        when(bookingRepository.existsByBookerIdAndItemIdAndStatusAndEndBefore(
+                eq(1L), eq(10L), eq(BookingStatus.APPROVED), any())).thenReturn(true);
+
+        assertTrue(service.hasUserBookedItem(1L, 10L));
+    }
+
+    @Test
+    void indexMissIsConfirmedInArchive() {
+        when(completedBookingIndex.covers(1L, 10L)).thenReturn(true);
+        when(archivedBookingRepository.existsByBookerIdAndItemIdAndStatus(1L, 10L, BookingStatus.APPROVED))
+                .thenReturn(true);
+
+        assertTrue(service.hasUserBookedItem(1L, 10L));
+    }
+
+    @Test
+    void missEverywhereIsRejected() {
+        when(completedBookingIndex.covers(anyLong(), anyLong())).thenReturn(true);
+
+        assertFalse(service.hasUserBookedItem(1L, 10L));
+    }
+}
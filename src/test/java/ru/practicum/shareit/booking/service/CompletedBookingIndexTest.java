@@ -0,0 +1,79 @@
+package ru.practicum.shareit.booking.service;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.booking.dto.ApprovedPairDto;
+import ru.practicum.shareit.booking.event.BookingEvent;
+import ru.practicum.shareit.booking.event.BookingEventType;
+import ru.practicum.shareit.booking.repository.ArchivedBookingRepository;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CompletedBookingIndexTest {
+    private final BookingRepository bookingRepository = mock(BookingRepository.class);
+    private final ArchivedBookingRepository archivedBookingRepository = mock(ArchivedBookingRepository.class);
+
+    @Test
+    void pairIsCompletedOnceItsEarliestBookingEnded() {
+        LocalDateTime now = LocalDateTime.now();
+        when(bookingRepository.findPairsByStatusAfter(any(), eq(0L), eq(0L), any())).thenReturn(List.of(
+                new ApprovedPairDto(1L, 10L, now.minusDays(1)),
+                new ApprovedPairDto(2L, 10L, now.plusDays(1))));
+        CompletedBookingIndex index = loaded(10);
+
+        assertTrue(index.covers(1L, 10L));
+        assertTrue(index.hasCompletedBooking(1L, 10L));
+        assertFalse(index.hasCompletedBooking(2L, 10L));
+        assertFalse(index.hasCompletedBooking(3L, 10L));
+    }
+
+    @Test
+    void overflowDuringLoadLeavesCheckToDatabase() {
+        LocalDateTime end = LocalDateTime.now().minusDays(1);
+        when(bookingRepository.findPairsByStatusAfter(any(), eq(0L), eq(0L), any())).thenReturn(List.of(
+                new ApprovedPairDto(1L, 10L, end),
+                new ApprovedPairDto(2L, 10L, end),
+                new ApprovedPairDto(3L, 10L, end)));
+        CompletedBookingIndex index = loaded(2);
+
+        assertFalse(index.covers(1L, 10L));
+    }
+
+    @Test
+    void overflowAfterLoadStopsAnswering() {
+        CompletedBookingIndex index = loaded(1);
+        index.onBookingEvent(approved(1L, 10L));
+        assertTrue(index.covers(1L, 10L));
+
+        index.onBookingEvent(approved(2L, 10L));
+
+        assertFalse(index.covers(1L, 10L));
+        assertFalse(index.covers(2L, 10L));
+    }
+
+    private CompletedBookingIndex loaded(int maxPairs) {
+        when(archivedBookingRepository.findPairsByStatusAfter(any(), anyLong(), anyLong(), any()))
+                .thenReturn(List.of());
+        CompletedBookingIndex index = new CompletedBookingIndex(bookingRepository, archivedBookingRepository, maxPairs);
+        index.load();
+        return index;
+    }
+
+    private static BookingEvent approved(Long bookerId, Long itemId) {
+        return BookingEvent.builder()
+                .type(BookingEventType.APPROVED)
+                .bookerId(bookerId)
+                .itemId(itemId)
+                .end(LocalDateTime.now().minusHours(1))
+                .build();
+    }
+}
@@ -0,0 +1,160 @@
+package ru.practicum.shareit.cache;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ExistenceFilterTest {
+
+    @Test
+    void everyIdMightExistUntilLoaded() {
+        TestFilter filter = new TestFilter(Duration.ofHours(1));
+
+        assertTrue(filter.mightExist(-1L));
+        assertTrue(filter.mightExist(100L));
+        assertEquals(0, filter.maxIdQueries);
+    }
+
+    @Test
+    void gapsBelowLoadedMaximumAreMissing() {
+        TestFilter filter = new TestFilter(Duration.ofHours(1));
+        filter.batches.add(List.of(1L, 2L, 5L));
+        filter.load();
+
+        assertTrue(filter.mightExist(1L));
+        assertTrue(filter.mightExist(2L));
+        assertFalse(filter.mightExist(3L));
+        assertFalse(filter.mightExist(4L));
+        assertTrue(filter.mightExist(5L));
+        assertFalse(filter.mightExist(0L));
+    }
+
+    @Test
+    void gapsAreFoundAcrossBatchBoundary() {
+        TestFilter filter = new TestFilter(Duration.ofHours(1));
+        filter.batches.add(LongStream.rangeClosed(1, 10_001)
+                .filter(id -> id != 7)
+                .boxed()
+                .collect(Collectors.toList()));
+        filter.batches.add(List.of(10_003L));
+        filter.load();
+
+        assertFalse(filter.mightExist(7L));
+        assertTrue(filter.mightExist(10_001L));
+        assertFalse(filter.mightExist(10_002L));
+        assertTrue(filter.mightExist(10_003L));
+        assertEquals(List.of(0L, 10_001L), filter.readAfter);
+    }
+
+    @Test
+    void idCreatedWhileLoadingIsNotTakenForGap() {
+        TestFilter filter = new TestFilter(Duration.ofHours(1));
+        // Вставка 2 ещё не закоммичена при чтении, а более поздняя 3 уже видна
+        filter.batches.add(List.of(1L, 3L, 4L));
+        filter.onRead = () -> filter.created(2L);
+        filter.load();
+
+        assertTrue(filter.mightExist(2L));
+        assertTrue(filter.mightExist(3L));
+    }
+
+    @Test
+    void idDeletedWhileLoadingStaysMissing() {
+        TestFilter filter = new TestFilter(Duration.ofHours(1));
+        filter.batches.add(List.of(1L, 2L, 3L));
+        filter.onRead = () -> filter.deleted(2L);
+        filter.load();
+
+        assertFalse(filter.mightExist(2L));
+    }
+
+    @Test
+    void createdAndDeletedIdsAreTrackedAfterLoad() {
+        TestFilter filter = new TestFilter(Duration.ofHours(1));
+        filter.batches.add(List.of(1L, 2L));
+        filter.load();
+
+        filter.created(3L);
+        filter.deleted(1L);
+
+        assertTrue(filter.mightExist(3L));
+        assertFalse(filter.mightExist(1L));
+        assertEquals(0, filter.maxIdQueries);
+    }
+
+    @Test
+    void maxIdRefreshIsThrottled() {
+        TestFilter filter = new TestFilter(Duration.ofHours(1));
+        filter.batches.add(List.of(1L, 2L));
+        filter.load();
+        filter.dbMaxId = 10L;
+
+        assertTrue(filter.mightExist(10L));
+        assertTrue(filter.mightExist(11L));
+        assertEquals(0, filter.maxIdQueries);
+    }
+
+    @Test
+    void maxIdIsRefreshedOnceIntervalPassed() {
+        TestFilter filter = new TestFilter(Duration.ZERO);
+        filter.batches.add(List.of(1L, 2L));
+        filter.load();
+        // Строки вставлены в обход сервисов
+        filter.dbMaxId = 10L;
+
+        assertTrue(filter.mightExist(10L));
+        assertFalse(filter.mightExist(11L));
+        assertEquals(2, filter.maxIdQueries);
+        assertTrue(filter.mightExist(5L));
+        assertEquals(2, filter.maxIdQueries);
+    }
+
+    @Test
+    void failedLoadKeepsFilterOpen() {
+        TestFilter filter = new TestFilter(Duration.ofHours(1));
+        filter.onRead = () -> {
+            throw new IllegalStateException("db is down");
+        };
+        filter.load();
+
+        assertTrue(filter.mightExist(3L));
+    }
+
+    private static class TestFilter extends ExistenceFilter {
+        private final Deque<List<Long>> batches = new ArrayDeque<>();
+        private final List<Long> readAfter = new ArrayList<>();
+        private Runnable onRead = () -> {
+        };
+        private Long dbMaxId;
+        private int maxIdQueries;
+
+        TestFilter(Duration maxIdRefreshInterval) {
+            super("test", maxIdRefreshInterval);
+        }
+
+        @Override
+        protected Long findMaxId() {
+            maxIdQueries++;
+            return dbMaxId;
+        }
+
+        @Override
+        protected List<Long> findIdsAfter(Long afterId, Pageable pageable) {
+            readAfter.add(afterId);
+            onRead.run();
+            List<Long> batch = batches.isEmpty() ? List.of() : batches.poll();
+            return batch.stream().limit(pageable.getPageSize()).collect(Collectors.toList());
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.TestFixtures;
+import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.CommentRepository;
+import ru.practicum.shareit.item.service.CommentInfoService;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+@SpringBootTest(properties = "shareit.item.latest-comments=3")
+class LatestCommentsTest {
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private CommentInfoService commentInfoService;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Test
+    void latestCommentsAreLimitedPerItem() {
+        User owner = fixtures.createUser("owner");
+        User author = fixtures.createUser("author");
+        Item popular = fixtures.createItem(owner);
+        Item quiet = fixtures.createItem(owner);
+        Item silent = fixtures.createItem(owner);
+        LocalDateTime base = LocalDateTime.now().minusDays(10).truncatedTo(ChronoUnit.SECONDS);
+        for (int i = 0; i < 6; i++) {
+            comment(popular, author, "popular " + i, base.plusDays(i));
+        }
+        // Два отзыва с одним временем: порядок между ними решает id
+        comment(popular, author, "popular tie", base.plusDays(5));
+        comment(quiet, author, "quiet 0", base);
+
+        Map<Long, List<CommentDto>> latest = commentInfoService.getLatestCommentsByItemIds(
+                List.of(popular.getId(), quiet.getId(), silent.getId()));
+
+        assertEquals(List.of("popular tie", "popular 5", "popular 4"), texts(latest.get(popular.getId())));
+        assertEquals(List.of("quiet 0"), texts(latest.get(quiet.getId())));
+        assertFalse(latest.containsKey(silent.getId()));
+    }
+
+    private static List<String> texts(List<CommentDto> comments) {
+        return comments.stream()
+                .map(CommentDto::getText)
+                .collect(Collectors.toList());
+    }
+
+    private void comment(Item item, User author, String text, LocalDateTime created) {
+        commentRepository.save(Comment.builder()
+                .text(text)
+                .item(item)
+                .author(author)
+                .created(created)
+                .build());
+    }
+}
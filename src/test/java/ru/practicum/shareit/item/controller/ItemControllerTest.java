@@ -0,0 +1,56 @@
+package ru.practicum.shareit.item.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.item.dto.ItemSearchPage;
+import ru.practicum.shareit.item.search.SearchMode;
+import ru.practicum.shareit.item.service.CommentService;
+import ru.practicum.shareit.item.service.ItemService;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(ItemController.class)
+class ItemControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private ItemService itemService;
+
+    @MockBean
+    private CommentService commentService;
+
+    @Test
+    void unknownSearchModeIsRejected() throws Exception {
+        mockMvc.perform(get("/items/search").param("text", "дрель").param("mode", "fuzy"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(itemService);
+    }
+
+    @Test
+    void searchModeIsCaseInsensitive() throws Exception {
+        when(itemService.search(anyString(), any(), any(), any(), any(), anyInt()))
+                .thenReturn(ItemSearchPage.builder().items(List.of()).build());
+
+        mockMvc.perform(get("/items/search").param("text", "drel").param("mode", "fuzzy"))
+                .andExpect(status().isOk());
+
+        verify(itemService).search(eq("drel"), isNull(), isNull(), eq(SearchMode.FUZZY), any(), eq(20));
+    }
+}
@@ -0,0 +1,44 @@
+package ru.practicum.shareit.item.search;
+
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Общие заготовки для тестов структур поиска: вещи и синхронная загрузка каталога без фонового потока.
+ */
+final class CatalogFixtures {
+    private CatalogFixtures() {
+    }
+
+    static void load(CatalogLoadListener listener, Item... items) {
+        ItemRepository itemRepository = mock(ItemRepository.class);
+        when(itemRepository.findByIdGreaterThanOrderByIdAsc(anyLong(), any())).thenReturn(List.of(items));
+        new ItemCatalogLoader(itemRepository, List.of(listener)).load();
+    }
+
+    static Item item(Long id, String name, String description) {
+        return Item.builder()
+                .id(id)
+                .name(name)
+                .description(description)
+                .available(true)
+                .build();
+    }
+
+    static ItemDto dto(Long id, String name, String description, boolean available) {
+        return ItemDto.builder()
+                .id(id)
+                .name(name)
+                .description(description)
+                .available(available)
+                .build();
+    }
+}
@@ -0,0 +1,70 @@
+package ru.practicum.shareit.item.search;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.pagination.SearchCursor;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static ru.practicum.shareit.item.search.CatalogFixtures.item;
+
+class ItemCatalogLoaderTest {
+    private final ItemRepository itemRepository = mock(ItemRepository.class);
+    private final ItemSearchIndex index = new ItemSearchIndex(0.3);
+    private final ItemNameSuggester suggester = new ItemNameSuggester();
+
+    @Test
+    void onePassFeedsIndexAndSuggester() {
+        List<Item> firstBatch = LongStream.rangeClosed(1, 1000)
+                .mapToObj(id -> item(id, "Дрель " + id, "description"))
+                .collect(Collectors.toList());
+        when(itemRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), any())).thenReturn(firstBatch);
+        when(itemRepository.findByIdGreaterThanOrderByIdAsc(eq(1000L), any()))
+                .thenReturn(List.of(item(1001L, "Перфоратор", "description")));
+
+        new ItemCatalogLoader(itemRepository, List.of(index, suggester)).load();
+
+        verify(itemRepository, times(2)).findByIdGreaterThanOrderByIdAsc(anyLong(), any());
+        assertEquals(1, index.search("перфоратор", SearchMode.EXACT, SearchCursor.first(), 10).orElseThrow().size());
+        assertEquals(List.of("Перфоратор"), suggester.suggest("перф", 10).orElseThrow());
+    }
+
+    @Test
+    void failingListenerDoesNotStopTheOthers() {
+        when(itemRepository.findByIdGreaterThanOrderByIdAsc(anyLong(), any()))
+                .thenReturn(List.of(item(1L, "Дрель", "description")));
+        CatalogLoadListener failing = mock(CatalogLoadListener.class);
+        doThrow(new IllegalStateException("boom")).when(failing).loadBatch(any());
+
+        new ItemCatalogLoader(itemRepository, List.of(failing, index)).load();
+
+        assertTrue(index.isReady());
+        verify(failing, never()).loadFinished();
+    }
+
+    @Test
+    void databaseFailureLeavesEveryoneUnready() {
+        when(itemRepository.findByIdGreaterThanOrderByIdAsc(anyLong(), any()))
+                .thenThrow(new IllegalStateException("db is down"));
+
+        new ItemCatalogLoader(itemRepository, List.of(index, suggester)).load();
+
+        assertFalse(index.isReady());
+        assertTrue(suggester.suggest("д", 1).isEmpty());
+    }
+}
@@ -0,0 +1,96 @@
+package ru.practicum.shareit.item.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.event.ItemEvent;
+import ru.practicum.shareit.item.event.ItemEventType;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static ru.practicum.shareit.item.search.CatalogFixtures.dto;
+import static ru.practicum.shareit.item.search.CatalogFixtures.item;
+import static ru.practicum.shareit.item.search.CatalogFixtures.load;
+
+class ItemNameSuggesterTest {
+    private final ItemNameSuggester suggester = new ItemNameSuggester();
+
+    @BeforeEach
+    void setUp() {
+        load(suggester,
+                item(1L, "Дрель Bosch", "description"),
+                item(2L, "Дрель  bosch", "description"),
+                item(3L, "Дрель Makita", "description"),
+                item(4L, "Дрезина", "description"));
+        assertTrue(suggester.suggest("д", 1).isPresent());
+    }
+
+    @Test
+    void moreFrequentNameComesFirstThenShorterOne() {
+        assertEquals(List.of("Дрель Bosch", "Дрезина", "Дрель Makita"), suggest("дре", 10));
+        assertEquals(List.of("Дрель Bosch", "Дрезина"), suggest("дре", 2));
+    }
+
+    @Test
+    void nameIsFoundByLaterWord() {
+        assertEquals(List.of("Дрель Bosch"), suggest("bos", 10));
+    }
+
+    @Test
+    void renameMovesCountToNewName() {
+        update(1L, dto(1L, "Дрель Bosch", "description", true), dto(1L, "Дрель Makita", "description", true));
+
+        assertEquals(List.of("Дрель Makita", "Дрезина", "Дрель Bosch"), suggest("дре", 10));
+        assertEquals(List.of("Дрель Makita"), suggest("дрель m", 10));
+    }
+
+    @Test
+    void deletedNamesDisappearFromEveryPrefix() {
+        delete(1L, "Дрель Bosch");
+        delete(2L, "Дрель  bosch");
+
+        assertEquals(List.of(), suggest("bos", 10));
+        assertEquals(List.of(), suggest("дрель b", 10));
+        assertEquals(List.of("Дрезина", "Дрель Makita"), suggest("дре", 10));
+    }
+
+    @Test
+    void unavailableItemIsNotSuggestedUntilAvailableAgain() {
+        update(4L, dto(4L, "Дрезина", "description", true), dto(4L, "Дрезина", "description", false));
+        assertEquals(List.of("Дрель Bosch", "Дрель Makita"), suggest("дре", 10));
+
+        update(4L, dto(4L, "Дрезина", "description", false), dto(4L, "Дрезина", "description", true));
+        assertEquals(List.of("Дрель Bosch", "Дрезина", "Дрель Makita"), suggest("дре", 10));
+    }
+
+    @Test
+    void newNameEntersTopWhenItOutranksExisting() {
+        update(3L, dto(3L, "Дрель Makita", "description", true), dto(3L, "Дрезина", "description", true));
+
+        assertEquals(List.of("Дрезина", "Дрель Bosch"), suggest("дре", 10));
+        assertEquals(List.of(), suggest("mak", 10));
+    }
+
+    private List<String> suggest(String prefix, int limit) {
+        return suggester.suggest(prefix, limit).orElseThrow();
+    }
+
+    private void update(Long itemId, ItemDto before, ItemDto after) {
+        suggester.onItemEvent(ItemEvent.builder()
+                .type(ItemEventType.UPDATED)
+                .itemId(itemId)
+                .before(before)
+                .after(after)
+                .build());
+    }
+
+    private void delete(Long itemId, String name) {
+        suggester.onItemEvent(ItemEvent.builder()
+                .type(ItemEventType.DELETED)
+                .itemId(itemId)
+                .before(dto(itemId, name, "description", true))
+                .build());
+    }
+}
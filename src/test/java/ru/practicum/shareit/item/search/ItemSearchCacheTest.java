@@ -0,0 +1,167 @@
+package ru.practicum.shareit.item.search;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.event.ItemEvent;
+import ru.practicum.shareit.item.event.ItemEventType;
+import ru.practicum.shareit.pagination.SearchCursor;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ItemSearchCacheTest {
+    private static final List<ItemSearchHit> OLD_HITS = hits(1L);
+    private static final List<ItemSearchHit> NEW_HITS = hits(1L, 2L);
+
+    private final ItemSearchIndex index = mock(ItemSearchIndex.class);
+    private final ItemSearchCache cache = new ItemSearchCache(index, 100, Duration.ofMinutes(10));
+
+    @Test
+    void repeatedQueryIsServedFromCache() {
+        when(index.search(anyString(), any(), any(), anyInt())).thenReturn(Optional.of(OLD_HITS));
+
+        search("дрель  Bosch");
+        assertEquals(OLD_HITS, search("bosch дрель"));
+
+        verify(index, times(1)).search(anyString(), any(), any(), anyInt());
+    }
+
+    @Test
+    void changeOfMatchingItemInvalidatesEntry() {
+        when(index.search(anyString(), any(), any(), anyInt()))
+                .thenReturn(Optional.of(OLD_HITS), Optional.of(NEW_HITS));
+        when(index.couldMatch(any(), any(), any())).thenReturn(true);
+        search("дрель");
+
+        cache.onItemEvent(created(2L, "Дрель"));
+
+        assertEquals(NEW_HITS, search("дрель"));
+        verify(index, times(2)).search(anyString(), any(), any(), anyInt());
+    }
+
+    @Test
+    void changeOfUnrelatedItemKeepsEntry() {
+        when(index.search(anyString(), any(), any(), anyInt())).thenReturn(Optional.of(OLD_HITS));
+        when(index.couldMatch(any(), any(), any())).thenReturn(false);
+        search("дрель");
+
+        cache.onItemEvent(created(2L, "Пила"));
+
+        assertEquals(OLD_HITS, search("дрель"));
+        verify(index, times(1)).search(anyString(), any(), any(), anyInt());
+    }
+
+    @Test
+    void pageComputedBeforeInvalidationIsNotCached() {
+        // Вещь меняется, пока страница считается по старому индексу: такую страницу класть в кэш нельзя
+        when(index.search(anyString(), any(), any(), anyInt()))
+                .thenAnswer(invocation -> {
+                    cache.onItemEvent(created(2L, "Дрель"));
+                    return Optional.of(OLD_HITS);
+                })
+                .thenReturn(Optional.of(NEW_HITS));
+
+        assertEquals(OLD_HITS, search("дрель"));
+        assertEquals(NEW_HITS, search("дрель"));
+        assertEquals(NEW_HITS, search("дрель"));
+
+        verify(index, times(2)).search(anyString(), any(), any(), anyInt());
+    }
+
+    @Test
+    void updateWithoutSearchFieldChangesDoesNotBlockPut() {
+        when(index.search(anyString(), any(), any(), anyInt()))
+                .thenAnswer(invocation -> {
+                    ItemDto item = item(1L, "Дрель", true);
+                    cache.onItemEvent(ItemEvent.builder()
+                            .type(ItemEventType.UPDATED)
+                            .itemId(1L)
+                            .before(item)
+                            .after(item)
+                            .build());
+                    return Optional.of(OLD_HITS);
+                });
+
+        search("дрель");
+        search("дрель");
+
+        verify(index, times(1)).search(anyString(), any(), any(), anyInt());
+    }
+
+    @Test
+    void differentCursorsAreCachedSeparately() {
+        when(index.search(anyString(), any(), any(), anyInt())).thenReturn(Optional.of(OLD_HITS));
+
+        cache.search("дрель", SearchMode.EXACT, SearchCursor.first(), 10);
+        cache.search("дрель", SearchMode.EXACT, SearchCursor.after(1.0, 1L), 10);
+
+        verify(index, times(2)).search(anyString(), any(), any(), anyInt());
+    }
+
+    @Test
+    void cursorFromCachedPageContinuesAfterUnrelatedWrite() {
+        SearchCursor next = SearchCursor.after(1.0, 1L);
+        when(index.search(anyString(), any(), eq(SearchCursor.first()), anyInt())).thenReturn(Optional.of(OLD_HITS));
+        when(index.search(anyString(), any(), argThat(cursor -> cursor != SearchCursor.first()), anyInt()))
+                .thenReturn(Optional.of(hits(2L)));
+        when(index.couldMatch(any(), any(), any())).thenReturn(false);
+        search("дрель");
+
+        cache.onItemEvent(created(3L, "Пила"));
+        ItemSearchHit last = search("дрель").get(0);
+
+        assertEquals(next.encode(), SearchCursor.after(last.getScore(), last.getItemId()).encode());
+        assertEquals(hits(2L), cache.search("дрель", SearchMode.EXACT, next, 10).orElseThrow());
+        verify(index, times(2)).search(anyString(), any(), any(), anyInt());
+    }
+
+    @Test
+    void indexThatCannotAnswerIsNotCached() {
+        when(index.search(anyString(), any(), any(), anyInt()))
+                .thenReturn(Optional.empty(), Optional.of(OLD_HITS));
+
+        assertEquals(Optional.empty(), cache.search("дрель", SearchMode.EXACT, SearchCursor.first(), 10));
+        assertEquals(OLD_HITS, search("дрель"));
+    }
+
+    private List<ItemSearchHit> search(String text) {
+        return cache.search(text, SearchMode.EXACT, SearchCursor.first(), 10).orElseThrow();
+    }
+
+    private static ItemEvent created(Long itemId, String name) {
+        return ItemEvent.builder()
+                .type(ItemEventType.CREATED)
+                .itemId(itemId)
+                .after(item(itemId, name, true))
+                .build();
+    }
+
+    private static ItemDto item(Long id, String name, boolean available) {
+        return ItemDto.builder()
+                .id(id)
+                .name(name)
+                .description("description")
+                .available(available)
+                .build();
+    }
+
+    private static List<ItemSearchHit> hits(Long... itemIds) {
+        return Arrays.stream(itemIds)
+                .map(itemId -> new ItemSearchHit(itemId, 1.0))
+                .collect(Collectors.toList());
+    }
+}
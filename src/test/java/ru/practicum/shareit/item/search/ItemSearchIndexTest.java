@@ -0,0 +1,105 @@
+package ru.practicum.shareit.item.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.item.event.ItemEvent;
+import ru.practicum.shareit.item.event.ItemEventType;
+import ru.practicum.shareit.pagination.SearchCursor;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static ru.practicum.shareit.item.search.CatalogFixtures.dto;
+import static ru.practicum.shareit.item.search.CatalogFixtures.item;
+import static ru.practicum.shareit.item.search.CatalogFixtures.load;
+
+class ItemSearchIndexTest {
+    private final ItemSearchIndex index = new ItemSearchIndex(0.3);
+
+    @BeforeEach
+    void setUp() {
+        load(index,
+                item(1L, "Дрель аккумуляторная", "мощная, два аккумулятора"),
+                item(2L, "Перфоратор", "сверлит бетон"),
+                item(3L, "Шуруповёрт", "для дрели не подходит"));
+        assertTrue(index.isReady());
+    }
+
+    @Test
+    void fuzzyModeFindsWordWithTypo() {
+        assertEquals(List.of(2L), search("перфаратор", SearchMode.FUZZY));
+        assertEquals(List.of(), search("перфаратор", SearchMode.EXACT));
+    }
+
+    @Test
+    void fuzzyModeMatchesLatinSpellingOfCyrillicWord() {
+        assertEquals(List.of(1L, 3L), search("drel", SearchMode.FUZZY));
+    }
+
+    @Test
+    void fuzzyModeRanksNameMatchAboveDescriptionMatch() {
+        assertEquals(List.of(1L, 3L), search("дрель", SearchMode.FUZZY));
+    }
+
+    @Test
+    void fuzzyModeRequiresEveryQueryWordToMatch() {
+        assertEquals(List.of(1L), search("дрель акумуляторная", SearchMode.FUZZY));
+        assertEquals(List.of(), search("перфаратор молоток", SearchMode.FUZZY));
+    }
+
+    @Test
+    void dissimilarWordIsNotMatched() {
+        assertEquals(List.of(), search("молоток", SearchMode.FUZZY));
+    }
+
+    @Test
+    void renamedItemIsFoundByNewNameWithTypo() {
+        index.onItemEvent(ItemEvent.builder()
+                .type(ItemEventType.UPDATED)
+                .itemId(2L)
+                .before(dto(2L, "Перфоратор", "сверлит бетон", true))
+                .after(dto(2L, "Бетономешалка", "сверлит бетон", true))
+                .build());
+
+        assertEquals(List.of(), search("перфаратор", SearchMode.FUZZY));
+        assertEquals(List.of(2L), search("бетаномешалка", SearchMode.FUZZY));
+    }
+
+    @Test
+    void scoresDoNotDependOnOtherItems() {
+        List<ItemSearchHit> before = index.search("дрель", SearchMode.EXACT, SearchCursor.first(), 10).orElseThrow();
+
+        index.onItemEvent(ItemEvent.builder()
+                .type(ItemEventType.CREATED)
+                .itemId(4L)
+                .after(dto(4L, "Дрель ударная", "по бетону", true))
+                .build());
+
+        List<ItemSearchHit> after = index.search("дрель", SearchMode.EXACT, SearchCursor.first(), 10).orElseThrow();
+        assertEquals(before.get(0), after.get(0));
+        assertEquals(List.of(1L, 4L), after.stream().map(ItemSearchHit::getItemId).collect(Collectors.toList()));
+    }
+
+    @Test
+    void cursorKeepsPagingAfterUnrelatedWrite() {
+        ItemSearchHit first = index.search("дрель", SearchMode.EXACT, SearchCursor.first(), 1).orElseThrow().get(0);
+
+        index.onItemEvent(ItemEvent.builder()
+                .type(ItemEventType.CREATED)
+                .itemId(5L)
+                .after(dto(5L, "Пила", "дрель тут ни при чём", true))
+                .build());
+
+        List<ItemSearchHit> next = index.search("дрель", SearchMode.EXACT,
+                SearchCursor.after(first.getScore(), first.getItemId()), 10).orElseThrow();
+        assertEquals(List.of(5L), next.stream().map(ItemSearchHit::getItemId).collect(Collectors.toList()));
+    }
+
+    private List<Long> search(String text, SearchMode mode) {
+        return index.search(text, mode, SearchCursor.first(), 10).orElseThrow().stream()
+                .map(ItemSearchHit::getItemId)
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,131 @@
+package ru.practicum.shareit.item.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemSearchPage;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchHit;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+import ru.practicum.shareit.item.search.SearchMode;
+import ru.practicum.shareit.pagination.SearchCursor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ItemSearchRefillTest {
+    private static final LocalDateTime START = LocalDateTime.now().plusDays(1);
+    private static final LocalDateTime END = START.plusDays(1);
+    private static final int SIZE = 5;
+
+    @Mock
+    private ItemRepository itemRepository;
+    @Mock
+    private ItemSearchIndex itemSearchIndex;
+    @InjectMocks
+    private ItemServiceImpl itemService;
+
+    private final AtomicLong nextId = new AtomicLong(1);
+
+    @Test
+    void refillFetchesSeveralPagesPerRound() {
+        endlessCandidates();
+        when(itemRepository.findAvailableByIdInFreeBetween(anyCollection(), any(), any(), any()))
+                .thenReturn(List.of())
+                .thenAnswer(invocation -> invocation.<List<Long>>getArgument(0).stream()
+                        .map(ItemSearchRefillTest::item)
+                        .collect(Collectors.toList()));
+
+        ItemSearchPage page = search(SearchCursor.first());
+
+        verify(itemSearchIndex).search(eq("дрель"), eq(SearchMode.EXACT), any(), eq(SIZE));
+        verify(itemSearchIndex).search(eq("дрель"), eq(SearchMode.EXACT), any(), eq(SIZE * 4));
+        verify(itemRepository, times(2)).findAvailableByIdInFreeBetween(anyCollection(), any(), any(), any());
+        // Страница кончается на последней отданной вещи, а не на последнем просмотренном кандидате
+        assertEquals(List.of(6L, 7L, 8L, 9L, 10L), ids(page));
+        assertEquals(SearchCursor.after(1.0 / 10, 10L).encode(), page.getNextCursor().encode());
+    }
+
+    @Test
+    void busyWindowFallsBackToDatabaseOnFirstPage() {
+        endlessCandidates();
+        when(itemRepository.findAvailableByIdInFreeBetween(anyCollection(), any(), any(), any()))
+                .thenReturn(List.of());
+        when(itemRepository.findAvailableItemsByTextFreeBetween(eq("дрель"), eq(BookingStatus.APPROVED),
+                eq(START), eq(END), anyDouble(), anyLong(), any())).thenReturn(List.of(item(100L)));
+
+        ItemSearchPage page = search(SearchCursor.first());
+
+        verify(itemRepository, times(4)).findAvailableByIdInFreeBetween(anyCollection(), any(), any(), any());
+        assertEquals(List.of(100L), ids(page));
+    }
+
+    @Test
+    void busyWindowOnLaterPageContinuesAfterScannedCandidates() {
+        endlessCandidates();
+        when(itemRepository.findAvailableByIdInFreeBetween(anyCollection(), any(), any(), any()))
+                .thenReturn(List.of());
+
+        ItemSearchPage page = search(SearchCursor.after(10.0, 1L));
+
+        verify(itemRepository, times(4)).findAvailableByIdInFreeBetween(anyCollection(), any(), any(), any());
+        verify(itemRepository, never()).findAvailableItemsByTextFreeBetween(
+                any(), any(), any(), any(), anyDouble(), anyLong(), any());
+        assertEquals(0, page.getItems().size());
+        assertNotNull(page.getNextCursor());
+    }
+
+    private ItemSearchPage search(SearchCursor cursor) {
+        return itemService.search("дрель", START, END, SearchMode.EXACT, cursor, SIZE);
+    }
+
+    private static List<Long> ids(ItemSearchPage page) {
+        return page.getItems().stream()
+                .map(ItemDto::getId)
+                .collect(Collectors.toList());
+    }
+
+    private void endlessCandidates() {
+        when(itemSearchIndex.search(eq("дрель"), eq(SearchMode.EXACT), any(), anyInt())).thenAnswer(invocation -> {
+            int limit = invocation.getArgument(3);
+            return Optional.of(LongStream.range(0, limit)
+                    .mapToObj(i -> {
+                        long id = nextId.getAndIncrement();
+                        return new ItemSearchHit(id, 1.0 / id);
+                    })
+                    .collect(Collectors.toList()));
+        });
+    }
+
+    private static Item item(Long id) {
+        return Item.builder()
+                .id(id)
+                .name("Дрель")
+                .description("Дрель ударная")
+                .available(true)
+                .build();
+    }
+}
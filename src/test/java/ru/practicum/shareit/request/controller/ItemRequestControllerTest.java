@@ -0,0 +1,76 @@
+package ru.practicum.shareit.request.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.pagination.KeysetCursor;
+import ru.practicum.shareit.request.service.ItemRequestService;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(ItemRequestController.class)
+class ItemRequestControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private ItemRequestService requestService;
+
+    @MockBean
+    private ItemService itemService;
+
+    @Test
+    @SuppressWarnings("deprecation")
+    void offsetIsStillServed() throws Exception {
+        when(requestService.getAllExceptRequesterWithItems(1L, 20, 10)).thenReturn(List.of());
+
+        mockMvc.perform(get("/requests/all").header("X-Sharer-User-Id", 1L)
+                        .param("from", "20").param("size", "10"))
+                .andExpect(status().isOk());
+
+        verify(requestService).getAllExceptRequesterWithItems(1L, 20, 10);
+    }
+
+    @Test
+    void cursorIsUsedWithoutOffset() throws Exception {
+        when(requestService.getAllExceptRequesterWithItems(eq(1L), any(KeysetCursor.class), eq(10)))
+                .thenReturn(List.of());
+
+        mockMvc.perform(get("/requests/all").header("X-Sharer-User-Id", 1L))
+                .andExpect(status().isOk());
+
+        verify(requestService).getAllExceptRequesterWithItems(1L, KeysetCursor.first(), 10);
+    }
+
+    @Test
+    void offsetTogetherWithCursorIsRejected() throws Exception {
+        String cursor = KeysetCursor.after(LocalDateTime.now(), 5L).encode();
+
+        mockMvc.perform(get("/requests/all").header("X-Sharer-User-Id", 1L)
+                        .param("from", "0").param("cursor", cursor))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(requestService);
+    }
+
+    @Test
+    void negativeOffsetIsRejected() throws Exception {
+        mockMvc.perform(get("/requests/all").header("X-Sharer-User-Id", 1L).param("from", "-1"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(requestService);
+    }
+}
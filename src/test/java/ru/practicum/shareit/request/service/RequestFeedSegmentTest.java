@@ -0,0 +1,218 @@
+package ru.practicum.shareit.request.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.event.CommentCountEvent;
+import ru.practicum.shareit.item.event.ItemEvent;
+import ru.practicum.shareit.item.event.ItemEventType;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.pagination.KeysetCursor;
+import ru.practicum.shareit.request.dto.ItemRequestWithItemsDto;
+import ru.practicum.shareit.request.event.ItemRequestEvent;
+import ru.practicum.shareit.request.event.ItemRequestEventType;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RequestFeedSegmentTest {
+    private static final LocalDateTime BASE = LocalDateTime.of(2024, 1, 1, 12, 0);
+    private static final Long READER_ID = 99L;
+
+    private final ItemRequestRepository requestRepository = mock(ItemRequestRepository.class);
+    private final ItemService itemService = mock(ItemService.class);
+
+    @BeforeEach
+    void noItems() {
+        when(itemService.findAllByRequestIdIn(anyList())).thenReturn(List.of());
+    }
+
+    @Test
+    void pageSkipsOwnRequestsAndFollowsCursor() {
+        RequestFeedSegment segment = loaded(5, request(3L, 1L), request(2L, 2L), request(1L, 3L));
+
+        assertEquals(List.of(3L, 1L), ids(segment.page(2L, KeysetCursor.first(), 10)));
+        assertEquals(List.of(1L), ids(segment.page(2L, KeysetCursor.after(created(3L), 3L), 1)));
+        assertEquals(List.of(), ids(segment.page(2L, KeysetCursor.after(created(1L), 1L), 1)));
+    }
+
+    @Test
+    void pagePastTailOfIncompleteSegmentIsLeftToDatabase() {
+        RequestFeedSegment segment = loaded(2, request(2L, 1L), request(1L, 1L));
+
+        assertEquals(List.of(2L, 1L), ids(segment.page(READER_ID, KeysetCursor.first(), 2)));
+        assertTrue(segment.page(READER_ID, KeysetCursor.first(), 3).isEmpty());
+        assertTrue(segment.page(READER_ID, KeysetCursor.after(created(1L), 1L), 1).isEmpty());
+    }
+
+    @Test
+    void createdRequestGoesToHeadAndOverflowEvictsTail() {
+        RequestFeedSegment segment = loaded(3, request(2L, 1L), request(1L, 1L));
+
+        segment.onItemRequestEvent(createdEvent(3L, created(3L)));
+        assertEquals(List.of(3L, 2L, 1L), ids(segment.page(READER_ID, KeysetCursor.first(), 10)));
+
+        segment.onItemRequestEvent(createdEvent(4L, created(4L)));
+        assertEquals(List.of(4L, 3L, 2L), ids(segment.page(READER_ID, KeysetCursor.first(), 3)));
+        // Вытесненный запрос 1 теперь только в БД
+        assertTrue(segment.page(READER_ID, KeysetCursor.first(), 4).isEmpty());
+    }
+
+    @Test
+    void requestOlderThanTailIsKeptOnlyInCompleteSegment() {
+        RequestFeedSegment incomplete = loaded(2, request(3L, 1L), request(2L, 1L));
+        incomplete.onItemRequestEvent(createdEvent(5L, BASE.minusDays(1)));
+        assertEquals(List.of(3L, 2L), ids(incomplete.page(READER_ID, KeysetCursor.first(), 2)));
+
+        RequestFeedSegment complete = loaded(3, request(3L, 1L), request(2L, 1L));
+        complete.onItemRequestEvent(createdEvent(5L, BASE.minusDays(1)));
+        assertEquals(List.of(3L, 2L, 5L), ids(complete.page(READER_ID, KeysetCursor.first(), 10)));
+    }
+
+    @Test
+    void deletedRequestIsRemoved() {
+        RequestFeedSegment segment = loaded(5, request(2L, 1L), request(1L, 1L));
+
+        segment.onItemRequestEvent(ItemRequestEvent.builder()
+                .type(ItemRequestEventType.DELETED)
+                .requestId(2L)
+                .build());
+
+        assertEquals(List.of(1L), ids(segment.page(READER_ID, KeysetCursor.first(), 10)));
+    }
+
+    @Test
+    void changeDuringReadForcesReread() {
+        RequestFeedSegment segment = new RequestFeedSegment(requestRepository, itemService, 5);
+        when(requestRepository.findPage(any(), any(), any()))
+                .thenAnswer(invocation -> {
+                    // Запрос 2 закоммичен, пока читался снимок без него
+                    segment.onItemRequestEvent(createdEvent(2L, created(2L)));
+                    return List.of(request(1L, 1L));
+                })
+                .thenReturn(List.of(request(2L, 1L), request(1L, 1L)));
+
+        segment.load();
+
+        verify(requestRepository, times(2)).findPage(any(), any(), any());
+        assertEquals(List.of(2L, 1L), ids(segment.page(READER_ID, KeysetCursor.first(), 10)));
+    }
+
+    @Test
+    void changesDuringEveryReadLeaveSegmentUnbuilt() {
+        RequestFeedSegment segment = new RequestFeedSegment(requestRepository, itemService, 5);
+        when(requestRepository.findPage(any(), any(), any())).thenAnswer(invocation -> {
+            segment.onItemRequestEvent(createdEvent(2L, created(2L)));
+            return List.of(request(1L, 1L));
+        });
+
+        segment.load();
+
+        verify(requestRepository, times(3)).findPage(any(), any(), any());
+        assertTrue(segment.page(READER_ID, KeysetCursor.first(), 10).isEmpty());
+    }
+
+    @Test
+    void itemMovedToAnotherRequestKeepsKnownCommentCount() {
+        when(itemService.findAllByRequestIdIn(anyList())).thenReturn(List.of(item(10L, 1L, 2L)));
+        RequestFeedSegment segment = loaded(5, request(2L, 1L), request(1L, 1L));
+
+        segment.onItemEvent(ItemEvent.builder()
+                .type(ItemEventType.UPDATED)
+                .itemId(10L)
+                .before(item(10L, 1L, 2L))
+                .after(item(10L, 2L, 0L))
+                .build());
+
+        List<ItemRequestWithItemsDto> page = segment.page(READER_ID, KeysetCursor.first(), 10).orElseThrow();
+        assertEquals(List.of(2L), page.get(0).getItems().stream().map(ItemDto::getCommentCount)
+                .collect(Collectors.toList()));
+        assertTrue(page.get(1).getItems().isEmpty());
+    }
+
+    @Test
+    void commentCountDoesNotGoBack() {
+        when(itemService.findAllByRequestIdIn(anyList())).thenReturn(List.of(item(10L, 1L, 0L)));
+        RequestFeedSegment segment = loaded(5, request(1L, 1L));
+
+        segment.onCommentCountEvent(CommentCountEvent.builder().itemId(10L).commentCount(5L).build());
+        segment.onCommentCountEvent(CommentCountEvent.builder().itemId(10L).commentCount(3L).build());
+
+        List<ItemRequestWithItemsDto> page = segment.page(READER_ID, KeysetCursor.first(), 10).orElseThrow();
+        assertEquals(5L, page.get(0).getItems().get(0).getCommentCount());
+    }
+
+    @Test
+    void eventsBeforeLoadAreIgnored() {
+        RequestFeedSegment segment = new RequestFeedSegment(requestRepository, itemService, 5);
+
+        segment.onItemRequestEvent(createdEvent(1L, created(1L)));
+
+        assertTrue(segment.page(READER_ID, KeysetCursor.first(), 10).isEmpty());
+    }
+
+    private RequestFeedSegment loaded(int maxSize, ItemRequest... requests) {
+        when(requestRepository.findPage(any(), any(), any())).thenReturn(Arrays.asList(requests));
+        RequestFeedSegment segment = new RequestFeedSegment(requestRepository, itemService, maxSize);
+        segment.load();
+        return segment;
+    }
+
+    private static List<Long> ids(Optional<List<ItemRequestWithItemsDto>> page) {
+        return page.orElseThrow().stream()
+                .map(ItemRequestWithItemsDto::getId)
+                .collect(Collectors.toList());
+    }
+
+    private static LocalDateTime created(Long id) {
+        return BASE.plusMinutes(id);
+    }
+
+    private static ItemRequest request(Long id, Long requesterId) {
+        User requester = new User();
+        requester.setId(requesterId);
+        return ItemRequest.builder()
+                .id(id)
+                .description("request " + id)
+                .requester(requester)
+                .created(created(id))
+                .build();
+    }
+
+    private static ItemRequestEvent createdEvent(Long id, LocalDateTime created) {
+        return ItemRequestEvent.builder()
+                .type(ItemRequestEventType.CREATED)
+                .requestId(id)
+                .requesterId(1L)
+                .description("request " + id)
+                .created(created)
+                .build();
+    }
+
+    private static ItemDto item(Long id, Long requestId, Long commentCount) {
+        return ItemDto.builder()
+                .id(id)
+                .name("item " + id)
+                .description("description")
+                .available(true)
+                .ownerId(1L)
+                .requestId(requestId)
+                .commentCount(commentCount)
+                .build();
+    }
+}
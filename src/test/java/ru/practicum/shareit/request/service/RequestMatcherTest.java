@@ -0,0 +1,174 @@
+package ru.practicum.shareit.request.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.transaction.PlatformTransactionManager;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.search.ItemSearchHit;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+import ru.practicum.shareit.item.search.SearchMode;
+import ru.practicum.shareit.item.service.ItemInfoService;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.model.RequestSuggestion;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.request.repository.RequestSuggestionRepository;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class RequestMatcherTest {
+    private static final Long REQUESTER_ID = 1L;
+    private static final Long OWNER_ID = 2L;
+
+    private final ItemSearchIndex itemSearchIndex = mock(ItemSearchIndex.class);
+    private final ItemInfoService itemInfoService = mock(ItemInfoService.class);
+    private final ItemRequestRepository requestRepository = mock(ItemRequestRepository.class);
+    private final RequestSuggestionRepository suggestionRepository = mock(RequestSuggestionRepository.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final RequestMatcher matcher = new RequestMatcher(itemSearchIndex, itemInfoService, requestRepository,
+            suggestionRepository, transactionManager, 1, 10, 10, 2);
+
+    @AfterEach
+    void stopWorkers() {
+        matcher.shutdown();
+    }
+
+    @Test
+    void requestDeletedBeforeLockIsSkipped() {
+        requests(request(1L), request(2L));
+        hits(10L);
+        items(item(10L, OWNER_ID));
+        when(requestRepository.lockByIdIn(anyCollection())).thenReturn(List.of(request(1L)));
+        when(itemInfoService.lockByIds(anyCollection())).thenReturn(Set.of(10L));
+
+        matcher.match(List.of(1L, 2L));
+
+        assertEquals(List.of("1:10"), saved());
+    }
+
+    @Test
+    void itemDeletedBeforeLockIsSkipped() {
+        requests(request(1L));
+        hits(10L, 11L);
+        items(item(10L, OWNER_ID), item(11L, OWNER_ID));
+        when(requestRepository.lockByIdIn(anyCollection())).thenReturn(List.of(request(1L)));
+        when(itemInfoService.lockByIds(anyCollection())).thenReturn(Set.of(11L));
+
+        matcher.match(List.of(1L));
+
+        assertEquals(List.of("1:11"), saved());
+    }
+
+    @Test
+    void rowsAreLockedInsideSavingTransaction() {
+        requests(request(1L));
+        hits(10L);
+        items(item(10L, OWNER_ID));
+        when(requestRepository.lockByIdIn(anyCollection())).thenReturn(List.of(request(1L)));
+        when(itemInfoService.lockByIds(anyCollection())).thenReturn(Set.of(10L));
+
+        matcher.match(List.of(1L));
+
+        InOrder order = inOrder(transactionManager, requestRepository, itemInfoService, suggestionRepository);
+        order.verify(transactionManager).getTransaction(any());
+        order.verify(requestRepository).lockByIdIn(Set.of(1L));
+        order.verify(itemInfoService).lockByIds(Set.of(10L));
+        order.verify(suggestionRepository).saveAll(anyList());
+        order.verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void ownItemsAreNotSuggestedAndLimitIsKept() {
+        requests(request(1L));
+        hits(10L, 11L, 12L, 13L);
+        items(item(10L, REQUESTER_ID), item(11L, OWNER_ID), item(12L, OWNER_ID), item(13L, OWNER_ID));
+        when(requestRepository.lockByIdIn(anyCollection())).thenReturn(List.of(request(1L)));
+        when(itemInfoService.lockByIds(anyCollection())).thenReturn(Set.of(11L, 12L));
+
+        matcher.match(List.of(1L));
+
+        assertEquals(List.of("1:11", "1:12"), saved());
+    }
+
+    @Test
+    void nothingToSuggestOpensNoTransaction() {
+        requests(request(1L));
+        when(itemSearchIndex.match(anyString(), eq(SearchMode.FUZZY), anyInt())).thenReturn(Optional.empty());
+        when(itemInfoService.getByIds(anyCollection())).thenReturn(Map.of());
+
+        matcher.match(List.of(1L));
+
+        verifyNoInteractions(transactionManager, suggestionRepository);
+    }
+
+    private void requests(ItemRequest... requests) {
+        when(requestRepository.findAllById(anyList())).thenReturn(Arrays.asList(requests));
+    }
+
+    private void hits(Long... itemIds) {
+        when(itemSearchIndex.match(anyString(), eq(SearchMode.FUZZY), anyInt())).thenReturn(Optional.of(
+                Arrays.stream(itemIds).map(id -> new ItemSearchHit(id, 1.0)).collect(Collectors.toList())));
+    }
+
+    private void items(Item... items) {
+        when(itemInfoService.getByIds(anyCollection())).thenReturn(Arrays.stream(items)
+                .collect(Collectors.toMap(Item::getId, Function.identity())));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<String> saved() {
+        ArgumentCaptor<List<RequestSuggestion>> captor = ArgumentCaptor.forClass(List.class);
+        verify(suggestionRepository).saveAll(captor.capture());
+        return captor.getValue().stream()
+                .map(suggestion -> suggestion.getRequestId() + ":" + suggestion.getItemId())
+                .sorted()
+                .collect(Collectors.toList());
+    }
+
+    private static ItemRequest request(Long id) {
+        return ItemRequest.builder()
+                .id(id)
+                .description("нужна дрель")
+                .requester(user(REQUESTER_ID))
+                .created(LocalDateTime.now())
+                .build();
+    }
+
+    private static Item item(Long id, Long ownerId) {
+        return Item.builder()
+                .id(id)
+                .name("Дрель")
+                .description("Дрель ударная")
+                .available(true)
+                .owner(user(ownerId))
+                .build();
+    }
+
+    private static User user(Long id) {
+        User user = new User();
+        user.setId(id);
+        return user;
+    }
+}